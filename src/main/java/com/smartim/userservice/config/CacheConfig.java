@@ -0,0 +1,88 @@
+package com.smartim.userservice.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.smartim.userservice.contants.UserConstants;
+import com.smartim.userservice.dto.AddressDto;
+import com.smartim.userservice.dto.UserDto;
+import com.smartim.userservice.dto.UserPageDto;
+import com.smartim.userservice.service.shared.CacheMetrics;
+import com.smartim.userservice.service.shared.CacheNamespaces;
+import com.smartim.userservice.service.shared.RedisService;
+import com.smartim.userservice.service.shared.TieredCache;
+import com.smartim.userservice.service.shared.TieredCacheManager;
+import com.smartim.userservice.service.shared.UserCacheService;
+import com.smartim.userservice.service.shared.UserProfileCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+/**
+ * Configuration class enabling declarative caching ({@code @Cacheable}, {@code @CachePut}, {@code @CacheEvict})
+ * and declaring every cache with its keyspace policy in one place.
+ * Caches:
+ *   {@code users}, {@code usersByEmail}: user profiles by user-name and by email, see {@link UserProfileCache}
+ *   {@code usersByRole}: users having a role, under {@code users_role_<role>}
+ *   {@code userSearches}: pages of users matching the admin search filters,
+ *   under {@code users_search_<filters>:<cursor>:<size>:<includeTotal>}
+ *   {@code addresses}: address book of a user, under {@code user_addresses_<userName>}
+ * Cache names are defined in {@link UserConstants}.
+ */
+@Configuration
+@EnableCaching(order = CacheConfig.CACHING_ORDER)
+public class CacheConfig {
+
+    /**
+     * Order of the caching advice: just before the transaction advice, so a cache hit returns without starting a
+     * transaction, which would take a database connection, and cached values are written after the commit.
+     */
+    static final int CACHING_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    private static final TypeReference<List<UserDto>> USERS_TYPE = new TypeReference<>() {};
+    private static final TypeReference<UserPageDto> USER_PAGE_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<AddressDto>> ADDRESSES_TYPE = new TypeReference<>() {};
+
+    /**
+     * Creates the cache manager of every cache of the service.
+     *
+     * @param userCacheService the user profile cache
+     * @param redisService the Redis access
+     * @param namespaces the keyspace generations
+     * @param cacheMetrics the cache metrics
+     * @param usersByRoleTimeToLiveSeconds TTL of the users by role, in seconds
+     * @param userSearchTimeToLiveSeconds TTL of the pages of admin search results, in seconds
+     * @param addressesTimeToLiveSeconds TTL of the address books, in seconds
+     * @param localMaxSize maximum number of entries kept in the in-process tier of each cache
+     * @param localTimeToLiveSeconds TTL of the entries of the in-process tiers, in seconds
+     * @return configured TieredCacheManager instance
+     */
+    @Bean
+    public TieredCacheManager cacheManager(UserCacheService userCacheService, RedisService redisService,
+                                           CacheNamespaces namespaces, CacheMetrics cacheMetrics,
+                                           @Value("${cache.users-by-role.ttl-seconds:300}")
+                                           long usersByRoleTimeToLiveSeconds,
+                                           @Value("${cache.user-search.ttl-seconds:60}")
+                                           long userSearchTimeToLiveSeconds,
+                                           @Value("${cache.address.ttl-seconds:3600}")
+                                           long addressesTimeToLiveSeconds,
+                                           @Value("${cache.local.max-size:1000}") long localMaxSize,
+                                           @Value("${cache.local.ttl-seconds:10}") long localTimeToLiveSeconds) {
+        return new TieredCacheManager(List.of(
+                new UserProfileCache(UserConstants.USERS_CACHE, UserProfileCache.Lookup.USER_NAME,
+                        userCacheService),
+                new UserProfileCache(UserConstants.USERS_BY_EMAIL_CACHE, UserProfileCache.Lookup.EMAIL,
+                        userCacheService),
+                new TieredCache(UserConstants.USERS_BY_ROLE_CACHE, UserConstants.USERS_BY_ROLE_KEY, USERS_TYPE,
+                        usersByRoleTimeToLiveSeconds, localMaxSize, localTimeToLiveSeconds,
+                        redisService, namespaces, cacheMetrics),
+                new TieredCache(UserConstants.USER_SEARCH_CACHE, UserConstants.USER_SEARCH_KEY, USER_PAGE_TYPE,
+                        userSearchTimeToLiveSeconds, localMaxSize, localTimeToLiveSeconds,
+                        redisService, namespaces, cacheMetrics),
+                new TieredCache(UserConstants.ADDRESSES_CACHE, UserConstants.USER_ADDRESSES_KEY, ADDRESSES_TYPE,
+                        addressesTimeToLiveSeconds, localMaxSize, localTimeToLiveSeconds,
+                        redisService, namespaces, cacheMetrics)));
+    }
+}
@@ -1,14 +1,34 @@
 package com.smartim.userservice.config;
 
+import com.smartim.userservice.contants.UserConstants;
+import com.smartim.userservice.service.shared.CacheNamespaces;
+import com.smartim.userservice.service.shared.NegativeLookupCache;
+import com.smartim.userservice.service.shared.TieredCacheManager;
+import com.smartim.userservice.service.shared.UserCacheMaintenance;
+import com.smartim.userservice.service.shared.UserCacheService;
+import com.smartim.userservice.util.CircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Locale;
+
 /**
  * Configuration class for setting up Redis integration.
- * Defines a RedisTemplate bean for performing Redis operations with String keys and values.
+ * Defines a RedisTemplate bean for performing Redis operations with String keys and values,
+ * a RedisTemplate bean for binary values encoded by {@link com.smartim.userservice.service.shared.codec.RedisCodecs},
+ * the circuit breaker letting the service bypass Redis while it is slow or down,
+ * and the listener container receiving cache invalidations and keyspace generation changes from other nodes.
  */
 @Configuration
 public class RedisConfig {
@@ -27,4 +47,99 @@ public class RedisConfig {
         redisTemplate.setValueSerializer(new StringRedisSerializer());
         return redisTemplate;
     }
+
+    /**
+     * Creates and configures a RedisTemplate bean with String keys and raw binary values.
+     *
+     * @param factory the Redis connection factory (auto-configured by Spring)
+     * @return configured RedisTemplate instance
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> binaryRedisTemplate(RedisConnectionFactory factory){
+        RedisTemplate<String, byte[]> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(factory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        return redisTemplate;
+    }
+
+    /**
+     * Creates the circuit breaker guarding every call made by {@link com.smartim.userservice.service.shared.RedisService},
+     * and exports its state as the {@code cache.redis.circuit.state} gauge, 1 for the current state and 0 for the others.
+     * Calls failing, including on the command timeout ({@code spring.data.redis.timeout}), or slower than the slow
+     * call threshold count as failures.
+     *
+     * @param meterRegistry the registry the state gauge is registered in
+     * @param failureRateThreshold the failure rate, in percent, at which the breaker opens
+     * @param windowSize the number of recent calls the failure rate is computed on
+     * @param minimumCalls the number of calls needed before the failure rate is considered
+     * @param slowCallMs the duration above which a call counts as a failure, in milliseconds
+     * @param openDurationMs how long Redis is bypassed before being probed again, in milliseconds
+     * @param halfOpenCalls the number of successful probe calls needed to use Redis again
+     * @return configured CircuitBreaker instance
+     */
+    @Bean
+    public CircuitBreaker redisCircuitBreaker(MeterRegistry meterRegistry,
+                                              @Value("${cache.redis.circuit-breaker.failure-rate-threshold:50}")
+                                              int failureRateThreshold,
+                                              @Value("${cache.redis.circuit-breaker.window-size:20}") int windowSize,
+                                              @Value("${cache.redis.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                                              @Value("${cache.redis.circuit-breaker.slow-call-ms:100}") long slowCallMs,
+                                              @Value("${cache.redis.circuit-breaker.open-duration-ms:10000}")
+                                              long openDurationMs,
+                                              @Value("${cache.redis.circuit-breaker.half-open-calls:3}")
+                                              int halfOpenCalls){
+        CircuitBreaker circuitBreaker = new CircuitBreaker("redis", failureRateThreshold, windowSize, minimumCalls,
+                slowCallMs, openDurationMs, halfOpenCalls, Clock.systemUTC());
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("cache.redis.circuit.state", circuitBreaker, breaker -> breaker.state() == state ? 1 : 0)
+                    .tag("state", state.name().toLowerCase(Locale.ROOT))
+                    .description("State of the Redis circuit breaker")
+                    .register(meterRegistry);
+        }
+        return circuitBreaker;
+    }
+
+    /**
+     * Creates a listener container subscribing the local caches to the invalidations published by other nodes.
+     *
+     * @param factory the Redis connection factory (auto-configured by Spring)
+     * @param userCacheService the user cache whose local tier is invalidated
+     * @param negativeLookupCache the cache of lookups which found nothing
+     * @param cacheNamespaces the keyspace generations, reloaded when another node bumps one
+     * @param cacheManager the manager of the declarative caches whose local tiers are invalidated
+     * @param userCacheMaintenance the maintenance dropping the authentication caches of users changed on another node
+     * @return configured RedisMessageListenerContainer instance
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory factory,
+                                                                   UserCacheService userCacheService,
+                                                                   NegativeLookupCache negativeLookupCache,
+                                                                   CacheNamespaces cacheNamespaces,
+                                                                   TieredCacheManager cacheManager,
+                                                                   UserCacheMaintenance userCacheMaintenance){
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(
+                (message, pattern) -> userCacheService.onInvalidation(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserConstants.USER_CACHE_INVALIDATION_CHANNEL));
+        container.addMessageListener(
+                (message, pattern) -> negativeLookupCache.onInvalidation(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserConstants.NEGATIVE_CACHE_INVALIDATION_CHANNEL));
+        container.addMessageListener(
+                (message, pattern) -> cacheNamespaces.onGenerationChange(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserConstants.CACHE_GENERATION_CHANNEL));
+        container.addMessageListener(
+                (message, pattern) -> cacheManager.onInvalidation(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserConstants.CACHE_INVALIDATION_CHANNEL));
+        container.addMessageListener(
+                (message, pattern) -> userCacheMaintenance.onRemoteUserChanged(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserConstants.USER_CHANGED_CHANNEL));
+        return container;
+    }
 }
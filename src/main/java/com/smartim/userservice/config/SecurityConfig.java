@@ -1,18 +1,23 @@
 package com.smartim.userservice.config;
 
+import com.smartim.userservice.contants.UserConstants;
+import com.smartim.userservice.security.BoundedPasswordEncoder;
+import com.smartim.userservice.security.CalibratedPasswordEncoder;
 import com.smartim.userservice.security.JwtAuthFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -40,7 +45,9 @@ public class SecurityConfig {
     /**
      * Configures the security filter chain.
      * - Disables CSRF (not needed for stateless JWT auth)
-     * - Allows unauthenticated access to registration, login, Swagger docs
+     * - Allows unauthenticated access to registration, login, JWKS, Swagger docs and the health endpoint
+     * - Restricts the other actuator endpoints, such as cache statistics, cache invalidation and the user export
+     *   to administrators
      * - Requires authentication for all other endpoints
      * - Adds JWT filter before Spring's default authentication filter
      *
@@ -52,8 +59,12 @@ public class SecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         return http.csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/actuator/**","/api/users/register", "/api/users/login","/api/users/fortgotPassword", "/v3/api-docs/**", "/swagger-ui/**")
-                        .permitAll().anyRequest().authenticated()
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/api/users/register", "/api/users/login","/api/users/fortgotPassword", "/.well-known/jwks.json", "/v3/api-docs/**", "/swagger-ui/**")
+                        .permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority(UserConstants.ADMIN_ROLE)
+                        .requestMatchers(HttpMethod.POST, "/api/admin/users/cache/invalidate").hasAuthority(UserConstants.ADMIN_ROLE)
+                        .requestMatchers(HttpMethod.GET, "/api/admin/users/export").hasAuthority(UserConstants.ADMIN_ROLE)
+                        .anyRequest().authenticated()
                 ).sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .userDetailsService(userDetailsService)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
@@ -62,12 +73,29 @@ public class SecurityConfig {
     }
 
     /**
-     * Bean for password encoding using BCrypt.
+     * Bean for password encoding using BCrypt, with a cost calibrated at startup to the target hash time,
+     * run on a bounded executor so that hashing cannot occupy every servlet thread.
      *
+     * @param meterRegistry registry the hashing metrics are exported to
+     * @param targetHashMillis the time one hash should take on this node
+     * @param minStrength the lowest acceptable BCrypt cost
+     * @param maxStrength the highest acceptable BCrypt cost
+     * @param threads number of hashing threads
+     * @param queueCapacity number of hashes allowed to wait for a thread
+     * @param timeoutMs maximum time a request waits for its hash
+     * @param retryAfterSeconds delay suggested to rejected clients
      * @return PasswordEncoder instance
      */
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${security.password.target-hash-millis:250}") long targetHashMillis,
+                                           @Value("${security.password.min-strength:10}") int minStrength,
+                                           @Value("${security.password.max-strength:14}") int maxStrength,
+                                           @Value("${security.password.hashing.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+                                           @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password.hashing.timeout-ms:2000}") long timeoutMs,
+                                           @Value("${security.password.hashing.retry-after-seconds:1}") long retryAfterSeconds){
+        return new BoundedPasswordEncoder(new CalibratedPasswordEncoder(targetHashMillis, minStrength, maxStrength), threads, queueCapacity, timeoutMs,
+                retryAfterSeconds, meterRegistry);
     }
 }
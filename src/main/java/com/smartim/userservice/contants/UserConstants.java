@@ -24,5 +24,34 @@ public class UserConstants {
     public static final String MESSAGE_500="An error occurred. Please try again or contact Dev team.";
     public static final String USER_NAME_KEY = "users_name_";
     public static final String USER_EMAIL_KEY = "user_email_";
+    public static final String USER_MOBILE_KEY = "user_mobile_";
+    public static final String USER_ADDRESSES_KEY = "user_addresses_";
+    public static final String USERS_BY_ROLE_KEY = "users_role_";
+    public static final String USER_SEARCH_KEY = "users_search_";
+    public static final String USER_CACHE_INVALIDATION_CHANNEL = "user_cache_invalidation";
+    public static final String CACHE_INVALIDATION_CHANNEL = "cache_invalidation";
+    public static final String USER_CHANGED_CHANNEL = "user_changed";
+    public static final String NEGATIVE_CACHE_INVALIDATION_CHANNEL = "negative_cache_invalidation";
+    public static final String CACHE_GENERATION_KEY = "cache_generation_";
+    public static final String CACHE_GENERATION_CHANNEL = "cache_generation";
+    // Bump when the layout of a cached DTO changes, so new code never reads entries written by old code
+    public static final String CACHE_SCHEMA_VERSION = "2";
+    // Names of the caches used in @Cacheable, @CachePut and @CacheEvict, see CacheConfig
+    public static final String USERS_CACHE = "users";
+    public static final String USERS_BY_EMAIL_CACHE = "usersByEmail";
+    public static final String USERS_BY_ROLE_CACHE = "usersByRole";
+    public static final String USER_SEARCH_CACHE = "userSearches";
+    public static final String ADDRESSES_CACHE = "addresses";
     public static final String DEFAULT_USER = "SYSTEM";
+    // Role, and authority, of the users allowed to operate the service
+    public static final String ADMIN_ROLE = "ADMIN";
+    public static final String DEFAULT_PAGE_SIZE = "50";
+    // Default number of rows fetched per round trip by streamed exports, see user.export.fetch-size
+    public static final String EXPORT_FETCH_SIZE = "500";
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final String INVALID_CURSOR = "Invalid page cursor, please restart the listing from the first page.";
+    // Keys of the login failures and lockout of a user-name or client, hash-tagged into the same Redis Cluster slot
+    public static final String LOGIN_FAILURES_KEY = "login_{%s}_fail";
+    public static final String LOGIN_LOCK_KEY = "login_{%s}_lock";
+    public static final String TOO_MANY_LOGIN_ATTEMPTS = "Too many failed login attempts, please retry later.";
 }
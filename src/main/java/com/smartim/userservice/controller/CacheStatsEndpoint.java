@@ -0,0 +1,32 @@
+package com.smartim.userservice.controller;
+
+import com.smartim.userservice.service.shared.CacheMetrics;
+import com.smartim.userservice.service.shared.CacheMetrics.KeyspaceStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint reporting hit ratio, load time, serialization time, payload size and errors of each cache
+ * keyspace, as collected by {@link CacheMetrics}. Mapped to {@code /actuator/caches-stats}.
+ */
+@Component
+@Endpoint(id = "cachesStats")
+@RequiredArgsConstructor
+public class CacheStatsEndpoint {
+
+    private final CacheMetrics cacheMetrics;
+
+    /**
+     * Returns the statistics of every keyspace used since startup.
+     *
+     * @return the statistics by keyspace
+     */
+    @ReadOperation
+    public Map<String, KeyspaceStats> cachesStats() {
+        return cacheMetrics.stats();
+    }
+}
@@ -0,0 +1,52 @@
+package com.smartim.userservice.controller;
+
+import com.smartim.userservice.security.JwtKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * REST controller publishing the public token signing keys, so other SMARTIM services can verify
+ * RS256 tokens locally, e.g. with {@code NimbusJwtDecoder.withJwkSetUri(...)} from the OAuth2 resource server.
+ */
+@Tag(name = "JWKS", description = "Public keys used to verify tokens issued by this service")
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    /**
+     * How long clients may cache the key set. Kept well below the token lifetime so new keys propagate quickly.
+     */
+    private static final Duration MAX_AGE = Duration.ofMinutes(15);
+
+    private final JwtKeyRing keyRing;
+
+    /**
+     * Returns the public keys of the signing key ring as a JSON Web Key Set.
+     *
+     * @return a response entity containing the JWK set
+     */
+    @Operation(
+            summary = "JSON Web Key Set REST API",
+            description = "REST API to get the public keys used to sign tokens inside SMARTIM"
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "HTTP status OK"
+    )
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(MAX_AGE).cachePublic())
+                .body(keyRing.jwkSet().toJSONObject());
+    }
+}
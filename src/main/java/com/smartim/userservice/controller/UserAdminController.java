@@ -1,9 +1,12 @@
 package com.smartim.userservice.controller;
 
+import com.smartim.userservice.contants.UserConstants;
 import com.smartim.userservice.dto.ErrorResponseDto;
 import com.smartim.userservice.dto.UserDto;
-import com.smartim.userservice.entity.User;
+import com.smartim.userservice.dto.UserPageDto;
+import com.smartim.userservice.service.UserExportService;
 import com.smartim.userservice.service.UserService;
+import com.smartim.userservice.service.shared.UserCacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -12,10 +15,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.security.Principal;
 import java.util.List;
@@ -27,29 +37,79 @@ import java.util.List;
 public class UserAdminController {
 
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserCacheService userCacheService;
 
     /**
-     * Retrieve a list of all users with optional filters.
+     * How long an export may stream, in milliseconds. Other asynchronous requests keep the default timeout.
+     */
+    @Value("${user.export.timeout-ms:1800000}")
+    private long exportTimeoutMs;
+
+    /**
+     * Retrieve one page of the users with optional filters.
      *
      * @param email Optional email filter
      * @param role Optional role filter
      * @param status Optional user status filter
-     * @return List of users matching the filters
+     * @param cursor Optional cursor of the page, as returned with the previous page
+     * @param size Number of users per page
+     * @param includeTotal Whether to estimate the number of matching users on the first page
+     * @return Page of users matching the filters, with the cursor of the next page
      */
-    @Operation(summary = "List all users", description = "Fetch all users with optional filters by email, role, and status")
+    @Operation(summary = "List all users", description = "Fetch users page by page with optional filters by email, role, and status")
     @ApiResponse(responseCode = "200", description = "Users retrieved successfully",
-            content = @Content(mediaType = "application/json", schema = @Schema(implementation = User.class)))
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserPageDto.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid page cursor",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponseDto.class)))
     @GetMapping("/getUsers")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<List<UserDto>> getAllUsers(
+    public ResponseEntity<UserPageDto> getAllUsers(
             @Parameter(description = "Filter by email") @RequestParam(required = false) String email,
             @Parameter(description = "Filter by role") @RequestParam(required = false) String role,
-            @Parameter(description = "Filter by status") @RequestParam(required = false) Boolean status) {
+            @Parameter(description = "Filter by status") @RequestParam(required = false) Boolean status,
+            @Parameter(description = "Cursor of the page, from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Number of users per page, at most " + UserConstants.MAX_PAGE_SIZE)
+            @RequestParam(defaultValue = UserConstants.DEFAULT_PAGE_SIZE) int size,
+            @Parameter(description = "Estimate the number of matching users") @RequestParam(defaultValue = "false") boolean includeTotal) {
 
-        List<UserDto> users = userService.getUsersWithFilters(email, role, status);
+        UserPageDto users = userService.getUsersPage(email, role, status, cursor, size, includeTotal);
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * Export the users with optional filters, for reporting jobs. The users are streamed while they are read,
+     * so the export is not limited by the memory of the service.
+     *
+     * @param role Optional role filter
+     * @param status Optional user status filter
+     * @param format Format of the export, NDJSON or CSV
+     * @param request the current request, whose asynchronous timeout is extended for the export
+     * @return Response streaming the users as an attachment
+     */
+    @Operation(summary = "Export users", description = "Stream every user with optional filters by role and status as NDJSON or CSV")
+    @ApiResponse(responseCode = "200", description = "Users exported successfully")
+    @ApiResponse(responseCode = "403", description = "Caller is not an administrator")
+    @GetMapping(value = "/export", produces = {"application/x-ndjson", "text/csv"})
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @Parameter(description = "Filter by role") @RequestParam(required = false) String role,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) Boolean status,
+            @Parameter(description = "Format of the export") @RequestParam(defaultValue = "NDJSON") UserExportService.Format format,
+            HttpServletRequest request) {
+
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(exportTimeoutMs);
+        }
+        StreamingResponseBody body = out -> userExportService.exportUsers(role, status, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("users." + format.extension()).build().toString())
+                .body(body);
+    }
+
     /**
      * Update the roles assigned to a specific user.
      *
@@ -87,6 +147,22 @@ public class UserAdminController {
         return ResponseEntity.ok("User deleted successfully");
     }
 
+    /**
+     * Invalidates every cached user profile on every node, e.g. after a bulk change made outside this service.
+     * Restricted to administrators, see {@code SecurityConfig}.
+     *
+     * @return Success message
+     */
+    @Operation(summary = "Invalidate user cache", description = "Drop every cached user profile at once")
+    @ApiResponse(responseCode = "200", description = "User cache invalidated")
+    @ApiResponse(responseCode = "403", description = "Caller is not an administrator")
+    @PostMapping("/cache/invalidate")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<String> invalidateUserCache() {
+        userCacheService.invalidateAll();
+        return ResponseEntity.ok("User cache invalidated");
+    }
+
     /**
      * Retrieves a list of users by their role.
      *
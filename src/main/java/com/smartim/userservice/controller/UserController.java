@@ -1,10 +1,10 @@
 package com.smartim.userservice.controller;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.smartim.userservice.contants.UserConstants;
 import com.smartim.userservice.dto.*;
-import com.smartim.userservice.service.shared.RedisService;
+import com.smartim.userservice.security.ClientIpResolver;
 import com.smartim.userservice.service.UserService;
+import com.smartim.userservice.service.shared.LoginThrottleService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -12,14 +12,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 import java.security.Principal;
-import static com.smartim.userservice.contants.UserConstants.USER_NAME_KEY;
-import static com.smartim.userservice.contants.UserConstants.USER_EMAIL_KEY;
 
 /**
  * REST controller for handling user-related operations such as registration,
@@ -31,7 +32,8 @@ import static com.smartim.userservice.contants.UserConstants.USER_EMAIL_KEY;
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
-    private final RedisService redisService;
+    private final LoginThrottleService loginThrottleService;
+    private final ClientIpResolver clientIpResolver;
 
     /**
      * Registers a new user.
@@ -58,23 +60,43 @@ public class UserController {
     /**
      * Authenticates a user and generates a JWT token.
      *
+     * Attempts from a locked-out user-name or client are rejected before any password is verified.
+     *
      * @param request the login credentials (username/email and password)
+     * @param httpRequest the current request, used to identify the client through the trusted proxies
      * @return a response entity containing a JWT token and status message
      */
     @Operation(
             summary = "Login User REST API",
             description = "REST API to login User inside SMARTIM"
     )
-    @ApiResponse(
-            responseCode = "200",
-            description = "HTTP status OK"
-    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "HTTP status OK"
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "HTTP status TOO MANY REQUESTS",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request){
+    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest){
+        String clientIp = clientIpResolver.resolve(httpRequest);
+        loginThrottleService.checkAllowed(request.getUserName(), clientIp);
+        String token;
+        try {
+            token = userService.login(request);
+        } catch (BadCredentialsException | UsernameNotFoundException e) {
+            loginThrottleService.recordFailure(request.getUserName(), clientIp);
+            throw e;
+        }
+        loginThrottleService.recordSuccess(request.getUserName());
         return ResponseEntity.status(HttpStatus.OK)
                 .body(new AuthResponse
                         (UserConstants.STATUS_200, UserConstants.MESSAGE_200
-                                , userService.login(request)));
+                                , token));
     }
 
     /**
@@ -97,14 +119,8 @@ public class UserController {
     })
     @GetMapping("/me")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<UserDto> profile(Principal principal) throws JsonProcessingException {
-        String userName =  principal.getName();
-        UserDto userDto =  redisService.get(USER_NAME_KEY + userName, UserDto.class);
-        if (userDto == null) {
-            userDto = userService.getUserByUserName(userName);
-            redisService.set(USER_NAME_KEY + userName, userDto, 300L);
-        }
-        return ResponseEntity.ok(userDto);
+    public ResponseEntity<UserDto> profile(Principal principal) {
+        return ResponseEntity.ok(userService.getUserByUserName(principal.getName()));
     }
 
     /**
@@ -129,12 +145,9 @@ public class UserController {
     @PutMapping("/me")
     @SecurityRequirement(name = "bearerAuth")
     public ResponseEntity<UserDto> updateProfile(@RequestBody UpdateUserRequest request,
-                                                 Principal principal) throws JsonProcessingException {
+                                                 Principal principal) {
         String userName = principal.getName();
-        UserDto updatedUser = userService.updateUserProfile(userName, request);
-        redisService.set(USER_NAME_KEY + userName, updatedUser, 300L);
-        redisService.set(USER_EMAIL_KEY + updatedUser.getEmail(), updatedUser, 300L);
-        return ResponseEntity.ok(updatedUser);
+        return ResponseEntity.ok(userService.updateUserProfile(userName, request));
     }
 
     /**
@@ -164,11 +177,8 @@ public class UserController {
     )
     @PatchMapping("/{userName}/status")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<UserDto> updateUserStatus(@PathVariable String userName) throws JsonProcessingException {
-        UserDto updatedUser = userService.updateUserStatus(userName);
-        redisService.set("users_name_" + userName, updatedUser, 300L);
-        redisService.set(USER_EMAIL_KEY + updatedUser.getEmail(), updatedUser, 300L);
-        return ResponseEntity.ok(updatedUser);
+    public ResponseEntity<UserDto> updateUserStatus(@PathVariable String userName) {
+        return ResponseEntity.ok(userService.updateUserStatus(userName));
     }
 
     /**
@@ -198,13 +208,8 @@ public class UserController {
     )
     @GetMapping("/{emailId}")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<UserDto> getUserById(@PathVariable String emailId) throws JsonProcessingException {
-        UserDto userDto =  redisService.get(USER_NAME_KEY + emailId, UserDto.class);
-        if (userDto == null) {
-            userDto = userService.getUserByEmail(emailId);
-            redisService.set(USER_EMAIL_KEY + emailId, userDto, 300L);
-        }
-        return ResponseEntity.ok(userDto);
+    public ResponseEntity<UserDto> getUserById(@PathVariable String emailId) {
+        return ResponseEntity.ok(userService.getUserByEmail(emailId));
     }
 
     /**
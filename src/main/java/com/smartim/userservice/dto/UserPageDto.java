@@ -0,0 +1,37 @@
+package com.smartim.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * UserPageDto DTO used to return one page of a user listing
+ */
+@Schema(
+        name = "UserPage",
+        description = "Schema to hold one page of users and the cursor of the next page"
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDto {
+
+    @Schema(
+            description = "Users of the page, ordered by creation"
+    )
+    private List<UserDto> users;
+
+    @Schema(
+            description = "Opaque cursor of the next page, absent on the last page", example = "djE6NDI"
+    )
+    private String nextCursor;
+
+    @Schema(
+            description = "Estimated number of matching users, only returned on the first page when requested",
+            example = "1250"
+    )
+    private Long totalEstimate;
+}
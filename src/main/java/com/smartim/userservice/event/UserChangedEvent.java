@@ -0,0 +1,43 @@
+package com.smartim.userservice.event;
+
+import com.smartim.userservice.entity.User;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Published by the user service whenever a user is changed or deleted, so caches derived from the user
+ * can be maintained once the change is committed.
+ * Carries the identifiers the user was known by before and after the change, since cache entries may be
+ * keyed by any of them.
+ *
+ * @param userName      the user-name of the changed user
+ * @param emails        the emails of the user before and after the change
+ * @param mobileNumbers the mobile numbers of the user before and after the change
+ */
+public record UserChangedEvent(String userName, Set<String> emails, Set<String> mobileNumbers) {
+
+    /**
+     * Creates the event for a user, given the email and mobile number it had before the change.
+     *
+     * @param user the changed user
+     * @param previousEmail the email of the user before the change
+     * @param previousMobileNumber the mobile number of the user before the change
+     * @return the event
+     */
+    public static UserChangedEvent of(User user, String previousEmail, String previousMobileNumber) {
+        return new UserChangedEvent(user.getUserName(), identifiers(previousEmail, user.getEmail()),
+                identifiers(previousMobileNumber, user.getMobileNumber()));
+    }
+
+    private static Set<String> identifiers(String previous, String current) {
+        Set<String> identifiers = new LinkedHashSet<>();
+        if (previous != null) {
+            identifiers.add(previous);
+        }
+        if (current != null) {
+            identifiers.add(current);
+        }
+        return Set.copyOf(identifiers);
+    }
+}
@@ -0,0 +1,24 @@
+package com.smartim.userservice.exception;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a Redis call is skipped because the Redis circuit breaker is open.
+ * It is a {@link org.springframework.dao.DataAccessException}, like the failures of the calls actually made,
+ * so the cache layer handles both the same way.
+ * Automatically returns HTTP 503 (Service Unavailable) when thrown in a controller.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class CacheUnavailableException extends DataAccessResourceFailureException {
+
+    /**
+     * Constructs a new CacheUnavailableException with a detailed message.
+     *
+     * @param message exception message
+     */
+    public CacheUnavailableException(String message){
+        super(message);
+    }
+}
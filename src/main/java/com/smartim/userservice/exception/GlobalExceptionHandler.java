@@ -1,6 +1,7 @@
 package com.smartim.userservice.exception;
 
 import com.smartim.userservice.dto.ErrorResponseDto;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -136,4 +137,48 @@ public class GlobalExceptionHandler {
         );
         return new ResponseEntity<>(errorResponseDto, HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * Handles PasswordHashingRejectedException
+     *
+     * @param exception contains PasswordHashingRejectedException information
+     * @param webRequest contains request related information
+     * @return a response entity containing error details and a Retry-After header
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ErrorResponseDto> handlePasswordHashingRejectedException(
+            PasswordHashingRejectedException exception, WebRequest webRequest
+    ){
+        ErrorResponseDto errorResponseDto =  new ErrorResponseDto(
+                webRequest.getDescription(false),
+                HttpStatus.SERVICE_UNAVAILABLE,
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(errorResponseDto);
+    }
+
+    /**
+     * Handles LoginThrottledException
+     *
+     * @param exception contains LoginThrottledException information
+     * @param webRequest contains request related information
+     * @return a response entity containing error details and a Retry-After header
+     */
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<ErrorResponseDto> handleLoginThrottledException(
+            LoginThrottledException exception, WebRequest webRequest
+    ){
+        ErrorResponseDto errorResponseDto =  new ErrorResponseDto(
+                webRequest.getDescription(false),
+                HttpStatus.TOO_MANY_REQUESTS,
+                exception.getMessage(),
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(errorResponseDto);
+    }
 }
@@ -0,0 +1,30 @@
+package com.smartim.userservice.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a user name or client has too many recent failed login attempts.
+ * Automatically returns HTTP 429 (Too Many Requests) when thrown in a controller.
+ */
+@Getter
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS)
+public class LoginThrottledException extends RuntimeException {
+
+    /**
+     * Number of seconds after which the client may retry.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new LoginThrottledException with a detailed message.
+     *
+     * @param message exception message
+     * @param retryAfterSeconds number of seconds after which the client may retry
+     */
+    public LoginThrottledException(String message, long retryAfterSeconds){
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,30 @@
+package com.smartim.userservice.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when the password hashing executor is saturated and cannot accept more work.
+ * Automatically returns HTTP 503 (Service Unavailable) when thrown in a controller.
+ */
+@Getter
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    /**
+     * Number of seconds after which the client may retry.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new PasswordHashingRejectedException with a detailed message.
+     *
+     * @param message exception message
+     * @param retryAfterSeconds number of seconds after which the client may retry
+     */
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds){
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -2,6 +2,7 @@ package com.smartim.userservice.mapper;
 
 import com.smartim.userservice.dto.*;
 import com.smartim.userservice.entity.Address;
+import com.smartim.userservice.repository.projection.AddressView;
 import org.mapstruct.*;
 import org.mapstruct.factory.Mappers;
 import java.time.LocalDateTime;
@@ -52,4 +53,12 @@ public interface AddressMapper {
      * @return list of corresponding AddressDto
      */
     List<AddressDto> toAddressDtoListFromAddressList(List<Address> addresses);
+
+    /**
+     * Converts a list of Address projections to a list of AddressDto.
+     *
+     * @param addressViews list of Address projections
+     * @return list of corresponding AddressDto
+     */
+    List<AddressDto> toAddressDtoListFromViewList(List<AddressView> addressViews);
 }
@@ -4,6 +4,7 @@ import com.smartim.userservice.dto.RegisterRequest;
 import com.smartim.userservice.dto.UpdateUserRequest;
 import com.smartim.userservice.dto.UserDto;
 import com.smartim.userservice.entity.User;
+import com.smartim.userservice.repository.projection.UserView;
 import org.mapstruct.*;
 import org.mapstruct.factory.Mappers;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -58,4 +59,20 @@ public interface UserMapper {
      * @return list of corresponding UserDto
      */
     List<UserDto> toUserDtoListFromUserList(List<User> user);
+
+    /**
+     * Converts a User projection to a UserDto.
+     *
+     * @param userView the User projection
+     * @return the corresponding UserDto
+     */
+    UserDto toUserDtoFromView(UserView userView);
+
+    /**
+     * Converts a list of User projections to a list of UserDto.
+     *
+     * @param userViews list of User projections
+     * @return list of corresponding UserDto
+     */
+    List<UserDto> toUserDtoListFromViewList(List<UserView> userViews);
 }
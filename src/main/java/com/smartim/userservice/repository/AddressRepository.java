@@ -1,6 +1,7 @@
 package com.smartim.userservice.repository;
 
 import com.smartim.userservice.entity.Address;
+import com.smartim.userservice.repository.projection.AddressView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -8,5 +9,13 @@ import java.util.List;
 @Repository
 public interface AddressRepository extends JpaRepository<Address, Long> {
     List<Address> findByUserName(String userName);
+
+    /**
+     * Finds the addresses of a user, selecting only the columns of their DTO.
+     *
+     * @param userName the user-name of the owner
+     * @return the addresses of the user
+     */
+    List<AddressView> findViewsByUserName(String userName);
 }
 
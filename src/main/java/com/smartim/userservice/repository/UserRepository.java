@@ -1,8 +1,14 @@
 package com.smartim.userservice.repository;
 
 import com.smartim.userservice.entity.User;
+import com.smartim.userservice.repository.projection.UserView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,8 +17,10 @@ import java.util.Optional;
  * Repository interface for User entity.
  * Extends JpaRepository to provide basic CRUD operations and
  * additional query methods for finding users by email, username, mobile number, etc.
+ * Read-only lookups return {@link UserView} projections, which select only the columns of the user DTO.
  */
-public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        UserStreamingRepository {
 
     /**
      * Finds a user by email.
@@ -64,5 +72,61 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      */
     List<User> findByEmailOrMobileNumber(String email, String mobileNumber);
 
+    /**
+     * Finds only the status of a user by user-name, without loading the entity.
+     *
+     * @param userName the user-name to search
+     * @return an Optional containing the user status if the user exists, else empty
+     */
+    @Query("select u.userStatus from User u where u.userName = :userName")
+    Optional<Boolean> findUserStatusByUserName(@Param("userName") String userName);
+
+    /**
+     * Finds a user by user-name, selecting only the columns of its DTO.
+     *
+     * @param userName the user-name to search
+     * @return an Optional containing the user if found, else empty
+     */
+    Optional<UserView> findViewByUserName(String userName);
+
+    /**
+     * Finds a user by email, selecting only the columns of its DTO.
+     *
+     * @param email the email to search
+     * @return an Optional containing the user if found, else empty
+     */
+    Optional<UserView> findViewByEmail(String email);
+
+    /**
+     * Finds users by role, selecting only the columns of their DTO.
+     *
+     * @param role the role to filter by
+     * @return an Optional containing a list of users with the given role
+     */
+    Optional<List<UserView>> findViewsByRole(String role);
+
+    /**
+     * Finds a page of users by status, selecting only the columns of their DTO and without counting
+     * all matching users.
+     *
+     * @param userStatus the user status to filter by
+     * @param pageable the page and sort order to load
+     * @return the users of the requested page
+     */
+    List<UserView> findViewsByUserStatus(Boolean userStatus, Pageable pageable);
+
+    /**
+     * Estimates the number of users from the table statistics of MySQL, without scanning the table.
+     * The estimate may be off by a few percent.
+     * The query runs outside the caller's transaction, so that when it fails, e.g. on another database, the
+     * caller's transaction is not marked rollback-only and the caller can fall back to counting.
+     *
+     * @return an Optional containing the estimated number of users, empty if the statistics are unavailable
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Query(value = "select table_rows from information_schema.tables "
+            + "where table_schema = database() and table_name = 'users'", nativeQuery = true)
+    Optional<Long> estimateCount();
+
     void deleteByUserName(String userName);
 }
@@ -0,0 +1,26 @@
+package com.smartim.userservice.repository;
+
+import com.smartim.userservice.entity.User;
+
+import java.util.stream.Stream;
+
+/**
+ * Repository fragment streaming users for exports, with a fetch size chosen per call.
+ * The fetch size is not a static query hint because MySQL Connector/J only streams a result set when asked for
+ * {@link Integer#MIN_VALUE} rows at a time, a value other databases reject.
+ */
+public interface UserStreamingRepository {
+
+    /**
+     * Streams the users matching optional filters, ordered by id, through a forward-only cursor.
+     * The entities are read-only, so Hibernate keeps no snapshot of them. Must be called in a transaction and the
+     * stream must be closed.
+     *
+     * @param role the role to filter by, or {@code null} for every role
+     * @param userStatus the user status to filter by, or {@code null} for every status
+     * @param fetchSize the number of rows fetched per round trip, {@link Integer#MIN_VALUE} to stream rows one at
+     *                  a time from MySQL
+     * @return a stream of the matching users
+     */
+    Stream<User> streamUsers(String role, Boolean userStatus, int fetchSize);
+}
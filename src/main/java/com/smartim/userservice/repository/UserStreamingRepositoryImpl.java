@@ -0,0 +1,30 @@
+package com.smartim.userservice.repository;
+
+import com.smartim.userservice.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.jpa.AvailableHints;
+
+import java.util.stream.Stream;
+
+/**
+ * JPQL implementation of {@link UserStreamingRepository}.
+ */
+public class UserStreamingRepositoryImpl implements UserStreamingRepository {
+
+    private static final String STREAM_USERS = "select u from User u where (:role is null or u.role = :role) "
+            + "and (:userStatus is null or u.userStatus = :userStatus) order by u.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<User> streamUsers(String role, Boolean userStatus, int fetchSize) {
+        return entityManager.createQuery(STREAM_USERS, User.class)
+                .setParameter("role", role)
+                .setParameter("userStatus", userStatus)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,33 @@
+package com.smartim.userservice.repository.projection;
+
+/**
+ * Read-only projection of an {@link com.smartim.userservice.entity.Address} holding the columns of
+ * {@link com.smartim.userservice.dto.AddressDto}. Queries returning it select only these columns and
+ * hydrate no entity.
+ */
+public interface AddressView {
+
+    Long getId();
+
+    String getReceiverName();
+
+    String getMobileNumber();
+
+    String getLabel();
+
+    String getLine1();
+
+    String getLine2();
+
+    String getLine3();
+
+    String getCity();
+
+    String getState();
+
+    String getPostalCode();
+
+    String getCountry();
+
+    String getPlusCode();
+}
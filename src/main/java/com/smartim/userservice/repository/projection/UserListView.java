@@ -0,0 +1,10 @@
+package com.smartim.userservice.repository.projection;
+
+/**
+ * {@link UserView} of a user in the paginated admin listing, adding the id the keyset cursor of the next page is
+ * built from. Like {@link UserView}, it never reads the password hash or hydrates an entity.
+ */
+public interface UserListView extends UserView {
+
+    Long getId();
+}
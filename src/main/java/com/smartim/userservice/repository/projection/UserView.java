@@ -0,0 +1,31 @@
+package com.smartim.userservice.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a {@link com.smartim.userservice.entity.User} holding the columns of
+ * {@link com.smartim.userservice.dto.UserDto}. Queries returning it select only these columns, so the password
+ * hash is never read and no entity is hydrated or tracked by the persistence context.
+ */
+public interface UserView {
+
+    String getEmail();
+
+    String getFullName();
+
+    String getMobileNumber();
+
+    Boolean getUserStatus();
+
+    String getRole();
+
+    String getUserName();
+
+    LocalDateTime getCreatedOn();
+
+    String getCreatedBy();
+
+    LocalDateTime getUpdatedOn();
+
+    String getUpdatedBy();
+}
@@ -0,0 +1,39 @@
+package com.smartim.userservice.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+/**
+ * Immutable {@link UserDetails} kept in {@link UserDetailsCache}. Unlike Spring Security's {@code User} it does
+ * not implement {@code CredentialsContainer}, so erasing the credentials of an authentication cannot clear the
+ * password of the cached entry shared by other requests.
+ *
+ * @param username    the user-name of the user
+ * @param password    the password hash of the user
+ * @param authorities the interned authorities of the role of the user, see {@link RoleAuthorities}
+ */
+public record CachedUserDetails(String username, String password, List<GrantedAuthority> authorities)
+        implements UserDetails {
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String toString() {
+        return "CachedUserDetails[username=" + username + ", authorities=" + authorities + "]";
+    }
+}
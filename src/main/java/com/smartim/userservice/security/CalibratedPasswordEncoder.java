@@ -0,0 +1,97 @@
+package com.smartim.userservice.security;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * {@link PasswordEncoder} whose BCrypt cost is calibrated at startup so that one hash takes about
+ * the configured target time on this node.
+ * New hashes are written as {@code {bcrypt}...} through a {@link DelegatingPasswordEncoder}, which also
+ * verifies hashes written before ids were used and hashes of other supported algorithms.
+ * {@link #upgradeEncoding(String)} reports hashes with a lower cost or another algorithm, so they can
+ * be re-hashed on the next successful login.
+ */
+@Slf4j
+public class CalibratedPasswordEncoder implements PasswordEncoder {
+
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int SAMPLES = 3;
+
+    /**
+     * The BCrypt cost chosen by the calibration.
+     */
+    @Getter
+    private final int strength;
+
+    private final DelegatingPasswordEncoder delegate;
+
+    /**
+     * Calibrates the BCrypt cost and builds the delegating encoder.
+     *
+     * @param targetHashMillis the time one hash should take on this node
+     * @param minStrength the lowest acceptable BCrypt cost
+     * @param maxStrength the highest acceptable BCrypt cost
+     */
+    public CalibratedPasswordEncoder(long targetHashMillis, int minStrength, int maxStrength) {
+        this.strength = calibrate(targetHashMillis, minStrength, maxStrength);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        this.delegate = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(
+                BCRYPT_ID, bcrypt,
+                "pbkdf2@SpringSecurity_v5_8", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8()));
+        // Hashes stored before ids were used are plain BCrypt hashes
+        this.delegate.setDefaultPasswordEncoderForMatches(bcrypt);
+        log.info("BCrypt cost calibrated to {} for a target hash time of {} ms", strength, targetHashMillis);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Measures a hash at the lowest cost and picks the highest cost whose extrapolated time
+     * stays within the target; each cost increment doubles the hashing time.
+     *
+     * @param targetHashMillis the time one hash should take
+     * @param minStrength the lowest acceptable cost
+     * @param maxStrength the highest acceptable cost
+     * @return the calibrated cost
+     */
+    static int calibrate(long targetHashMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        // Warm up the JIT before measuring
+        probe.encode(SAMPLE_PASSWORD);
+        long[] nanos = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode(SAMPLE_PASSWORD);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double hashMillis = Math.max(nanos[SAMPLES / 2] / 1_000_000.0, 0.001);
+        int chosen = minStrength;
+        while (chosen < maxStrength && hashMillis * 2 <= targetHashMillis) {
+            hashMillis *= 2;
+            chosen++;
+        }
+        return chosen;
+    }
+}
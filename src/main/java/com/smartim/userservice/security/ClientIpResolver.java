@@ -0,0 +1,78 @@
+package com.smartim.userservice.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Resolves the IP address of the client of a request, through the proxies in front of the service.
+ * The {@code X-Forwarded-For} header is only trusted when the request comes from a trusted proxy, and it is read
+ * from right to left, skipping the trusted proxies, so a client cannot choose its address by sending the header.
+ * Proxies are trusted by address or CIDR range through {@code security.trusted-proxies}, by default the loopback
+ * and private networks, like Tomcat's {@code RemoteIpValve}.
+ */
+@Component
+public class ClientIpResolver {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    /**
+     * Creates the resolver.
+     *
+     * @param trustedProxies addresses or CIDR ranges of the proxies allowed to forward the client address
+     */
+    public ClientIpResolver(@Value("${security.trusted-proxies:127.0.0.0/8,::1/128,10.0.0.0/8,172.16.0.0/12,"
+            + "192.168.0.0/16,169.254.0.0/16,fc00::/7,fe80::/10}") String[] trustedProxies) {
+        this.trustedProxies = Arrays.stream(trustedProxies)
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    /**
+     * Returns the address of the client of a request.
+     *
+     * @param request the request
+     * @return the address of the client, or {@code null} if the request comes from a trusted proxy which did not
+     *         forward the address of its client
+     */
+    public String resolve(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (!isTrusted(remoteAddress)) {
+            return remoteAddress;
+        }
+        String forwardedFor = request.getHeader(FORWARDED_FOR);
+        if (forwardedFor == null) {
+            return null;
+        }
+        String[] addresses = forwardedFor.split(",");
+        for (int i = addresses.length - 1; i >= 0; i--) {
+            String address = addresses[i].trim();
+            if (!address.isEmpty() && !isTrusted(address)) {
+                return address;
+            }
+        }
+        return null;
+    }
+
+    private boolean isTrusted(String address) {
+        for (IpAddressMatcher proxy : trustedProxies) {
+            try {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                // Not an IP address, e.g. a malformed forwarded header
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -20,6 +21,9 @@ import java.io.IOException;
 /**
  * Filter that validates JWT from incoming requests and sets the security context
  * for authenticated users. It runs once per request.
+ * In stateless mode the principal and authorities are built from the verified token claims
+ * instead of loading the user from the database; only the user status is checked,
+ * through {@link UserStatusCache}.
  */
 @Component
 @RequiredArgsConstructor
@@ -27,6 +31,14 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
+
+    /**
+     * Builds the authentication from token claims instead of loading the user on every request.
+     * Loaded from application yaml.
+     */
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean stateless;
 
     /**
      * Extracts JWT from the Authorization header, validates it, and if valid,
@@ -43,7 +55,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException{
         final String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
         final String jwtToken;
-        final String username;
+        final VerifiedToken verifiedToken;
 
         // If Authorization header is missing or doesn't start with Bearer, skip this filter
         if(authHeader == null || !authHeader.startsWith("Bearer ")){
@@ -55,25 +67,23 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         jwtToken = authHeader.substring(7);
 
         try{
-            // Extract username from token
-            username = jwtUtil.extractUsername(jwtToken);
+            // Verify the token once; the claims are reused for every check below
+            verifiedToken = jwtUtil.verifyToken(jwtToken);
         } catch (Exception e) {
             // If token is invalid or extraction fails, skip authentication
             filterChain.doFilter(request, response);
             return;
         }
 
+        final String username = verifiedToken.userName();
+
         // Proceed only if user is not already authenticated
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null){
-            UserDetails userDetails =  userDetailsService.loadUserByUsername(username);
-
-            // Validate the token with the user details
-            if (jwtUtil.isTokenValid(jwtToken, userDetails.getUsername())){
-                // Create authentication token and set it in the security context
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities()
-                        );
+            UsernamePasswordAuthenticationToken authToken = stateless
+                    ? authenticateFromClaims(verifiedToken)
+                    : authenticateFromUserDetails(verifiedToken);
+            if (authToken != null){
+                // Set the authentication in the security context
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
@@ -82,4 +92,37 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // Continue the filter chain
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Loads the user through {@link UserDetailsService} and authenticates it if the token belongs to it.
+     *
+     * @param verifiedToken the verified token claims
+     * @return the authentication token, or {@code null} if the token is not valid for the user
+     */
+    private UsernamePasswordAuthenticationToken authenticateFromUserDetails(VerifiedToken verifiedToken){
+        UserDetails userDetails = userDetailsService.loadUserByUsername(verifiedToken.userName());
+
+        // Validate the token with the user details
+        if (verifiedToken.userName().equals(userDetails.getUsername()) && !verifiedToken.isExpired()){
+            return new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities()
+            );
+        }
+        return null;
+    }
+
+    /**
+     * Authenticates the token subject with the role carried by the token, without a database round trip
+     * unless the user status is not cached yet.
+     *
+     * @param verifiedToken the verified token claims
+     * @return the authentication token, or {@code null} if the token expired or the user is inactive
+     */
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(VerifiedToken verifiedToken){
+        if (verifiedToken.isExpired() || !userStatusCache.isActive(verifiedToken.userName())){
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(verifiedToken.userName(), null,
+                RoleAuthorities.of(verifiedToken.role()));
+    }
 }
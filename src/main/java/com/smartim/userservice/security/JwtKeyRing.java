@@ -0,0 +1,302 @@
+package com.smartim.userservice.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the keys used to sign and verify JWTs, each identified by a {@code kid} header.
+ * Keys and the parser are built once and shared by all requests.
+ * Two signing modes are supported:
+ *   HS256 - when rotation is enabled, a new signing key is derived from the configured secret for every
+ *   rotation period, so all nodes agree on the keys without coordination. Keys of previous periods are
+ *   kept until every token they signed has expired, and the key of the next period is built in advance
+ *   so that rotation never happens on the request path.
+ *   RS256 - tokens are signed with the configured RSA private key and the public keys are published
+ *   through {@link #jwkSet()}, so other services can verify tokens locally. Rotation is done by deploying
+ *   a new private key and listing the previous public key until its tokens have expired. The private key
+ *   is required: a key generated per instance would make tokens valid on one node only and until restart.
+ * Tokens without a key id, signed with the secret itself, are accepted in HS256 mode. In RS256 mode they are
+ * only accepted until {@code jwt.legacy-hmac.accept-until}, so the migration away from the shared secret ends.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    /**
+     * Key id used when HS256 rotation is disabled; the key is the configured secret itself.
+     */
+    static final String STATIC_KEY_ID = "0";
+
+    private final byte[] secret;
+    private final long rotationPeriodMs;
+    private final int retainedPeriods;
+    private final Clock clock;
+    private final SecretKey legacyKey;
+    private final Instant legacyKeyAcceptedUntil;
+    private final JwtParser parser;
+
+    private volatile KeySet keySet;
+
+    /**
+     * Creates the key ring.
+     *
+     * @param jwtSecret secret from which the HS256 signing keys are derived
+     * @param jwtExpirationTimeMs token lifetime in milliseconds, used to decide how long old keys are kept
+     * @param rotationPeriodMinutes HS256 rotation period in minutes, {@code 0} disables rotation
+     * @param algorithm signing algorithm, {@code HS256} or {@code RS256}
+     * @param rsaPrivateKey PEM encoded PKCS#8 RSA private key used in RS256 mode
+     * @param rsaPreviousPublicKeys PEM encoded public keys still accepted in RS256 mode
+     * @param legacyAcceptUntil ISO-8601 instant until which RS256 mode still accepts tokens without key id
+     *                          signed with the secret, empty to reject them
+     */
+    @Autowired
+    public JwtKeyRing(@Value("${jwt.secret:}") String jwtSecret,
+                      @Value("${jwt.expiration}") long jwtExpirationTimeMs,
+                      @Value("${jwt.key-rotation.period-minutes:0}") long rotationPeriodMinutes,
+                      @Value("${jwt.signing.algorithm:HS256}") String algorithm,
+                      @Value("${jwt.rsa.private-key:}") String rsaPrivateKey,
+                      @Value("${jwt.rsa.previous-public-keys:}") String[] rsaPreviousPublicKeys,
+                      @Value("${jwt.legacy-hmac.accept-until:}") String legacyAcceptUntil) {
+        this(jwtSecret, jwtExpirationTimeMs, rotationPeriodMinutes, SignatureAlgorithm.forName(algorithm),
+                rsaPrivateKey, rsaPreviousPublicKeys,
+                legacyAcceptUntil == null || legacyAcceptUntil.isBlank() ? null : Instant.parse(legacyAcceptUntil),
+                Clock.systemUTC());
+    }
+
+    JwtKeyRing(String jwtSecret, long jwtExpirationTimeMs, long rotationPeriodMinutes, SignatureAlgorithm algorithm,
+               String rsaPrivateKey, String[] rsaPreviousPublicKeys, Instant legacyAcceptUntil, Clock clock) {
+        this.secret = jwtSecret == null ? new byte[0] : jwtSecret.getBytes(StandardCharsets.UTF_8);
+        this.clock = clock;
+        this.legacyKey = secret.length > 0 ? Keys.hmacShaKeyFor(secret) : null;
+        // In HS256 mode the secret signs the current tokens anyway, so accepting it without a key id adds nothing
+        this.legacyKeyAcceptedUntil = algorithm == SignatureAlgorithm.HS256 ? Instant.MAX
+                : legacyAcceptUntil == null ? Instant.MIN : legacyAcceptUntil;
+        if (algorithm == SignatureAlgorithm.RS256 && legacyKey != null
+                && clock.instant().isBefore(legacyKeyAcceptedUntil)) {
+            log.warn("Tokens signed with jwt.secret are accepted until {}", legacyKeyAcceptedUntil);
+        }
+        if (algorithm == SignatureAlgorithm.HS256) {
+            if (legacyKey == null) {
+                throw new IllegalStateException("jwt.secret is required for HS256 signing");
+            }
+            this.rotationPeriodMs = rotationPeriodMinutes * 60_000;
+            this.retainedPeriods = rotationPeriodMs > 0
+                    ? (int) Math.ceilDiv(Math.max(jwtExpirationTimeMs, 0), rotationPeriodMs) + 1
+                    : 0;
+            this.keySet = buildHmacKeySet(currentPeriod());
+        } else if (algorithm == SignatureAlgorithm.RS256) {
+            this.rotationPeriodMs = 0;
+            this.retainedPeriods = 0;
+            this.keySet = buildRsaKeySet(rsaPrivateKey, rsaPreviousPublicKeys);
+        } else {
+            throw new IllegalStateException("Unsupported JWT signing algorithm: " + algorithm);
+        }
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return verificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Returns the key that signs new tokens.
+     *
+     * @return the active signing key, its id and algorithm
+     */
+    public SigningKey signingKey() {
+        if (currentPeriod() != keySet.activePeriod()) {
+            // The scheduled rotation has not run yet; the next key is already built
+            rotate();
+        }
+        return keySet.signingKey();
+    }
+
+    /**
+     * Returns the thread-safe parser that verifies tokens against every key of the ring.
+     *
+     * @return the shared JWT parser
+     */
+    public JwtParser parser() {
+        return parser;
+    }
+
+    /**
+     * Returns the public keys of the ring as a JSON Web Key Set. Empty in HS256 mode.
+     *
+     * @return the JWK set, containing public keys only
+     */
+    public JWKSet jwkSet() {
+        return keySet.jwkSet();
+    }
+
+    /**
+     * Moves the ring to the current rotation period, dropping keys that can no longer verify a live token.
+     */
+    @Scheduled(fixedDelayString = "${jwt.key-rotation.check-interval-ms:60000}")
+    public void rotate() {
+        long period = currentPeriod();
+        if (period != keySet.activePeriod()) {
+            keySet = buildHmacKeySet(period);
+        }
+    }
+
+    /**
+     * Looks up the key that verifies tokens signed with the given key id.
+     * Tokens issued before key ids were introduced carry no key id and are verified with the secret itself,
+     * while the legacy key is still accepted.
+     *
+     * @param keyId the {@code kid} header of the token
+     * @return the verification key
+     * @throws SignatureException if the key id is unknown or has been retired
+     */
+    private Key verificationKey(String keyId) {
+        if (keyId == null) {
+            if (legacyKey == null || !clock.instant().isBefore(legacyKeyAcceptedUntil)) {
+                throw new SignatureException("Tokens without key id are no longer accepted");
+            }
+            return legacyKey;
+        }
+        Key key = keySet.verificationKeys().get(keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown or retired signing key: " + keyId);
+        }
+        return key;
+    }
+
+    private long currentPeriod() {
+        return rotationPeriodMs > 0 ? Math.floorDiv(clock.millis(), rotationPeriodMs) : 0;
+    }
+
+    private KeySet buildHmacKeySet(long activePeriod) {
+        if (rotationPeriodMs == 0) {
+            return new KeySet(activePeriod, new SigningKey(STATIC_KEY_ID, legacyKey, SignatureAlgorithm.HS256),
+                    Map.of(STATIC_KEY_ID, legacyKey), new JWKSet());
+        }
+        Map<String, Key> keys = new HashMap<>();
+        KeySet previous = keySet;
+        for (long period = activePeriod - retainedPeriods; period <= activePeriod + 1; period++) {
+            String keyId = Long.toString(period);
+            Key existing = previous == null ? null : previous.verificationKeys().get(keyId);
+            keys.put(keyId, existing != null ? existing : deriveKey(keyId));
+        }
+        String activeKeyId = Long.toString(activePeriod);
+        return new KeySet(activePeriod, new SigningKey(activeKeyId, keys.get(activeKeyId), SignatureAlgorithm.HS256),
+                Map.copyOf(keys), new JWKSet());
+    }
+
+    private KeySet buildRsaKeySet(String rsaPrivateKey, String[] rsaPreviousPublicKeys) {
+        if (rsaPrivateKey == null || rsaPrivateKey.isBlank()) {
+            throw new IllegalStateException("jwt.rsa.private-key is required for RS256 signing");
+        }
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            RSAPrivateCrtKey privateKey = (RSAPrivateCrtKey) keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(decodePem(rsaPrivateKey)));
+            RSAPublicKey publicKey = (RSAPublicKey) keyFactory.generatePublic(
+                    new RSAPublicKeySpec(privateKey.getModulus(), privateKey.getPublicExponent()));
+            List<RSAPublicKey> publicKeys = new ArrayList<>();
+            publicKeys.add(publicKey);
+            if (rsaPreviousPublicKeys != null) {
+                for (String pem : rsaPreviousPublicKeys) {
+                    if (!pem.isBlank()) {
+                        publicKeys.add((RSAPublicKey) keyFactory.generatePublic(new X509EncodedKeySpec(decodePem(pem))));
+                    }
+                }
+            }
+            Map<String, Key> keys = new LinkedHashMap<>();
+            List<JWK> jwks = new ArrayList<>();
+            for (RSAPublicKey key : publicKeys) {
+                String keyId = new RSAKey.Builder(key).build().computeThumbprint().toString();
+                keys.put(keyId, key);
+                jwks.add(new RSAKey.Builder(key)
+                        .keyID(keyId)
+                        .keyUse(KeyUse.SIGNATURE)
+                        .algorithm(JWSAlgorithm.RS256)
+                        .build());
+            }
+            String activeKeyId = keys.keySet().iterator().next();
+            return new KeySet(0, new SigningKey(activeKeyId, privateKey, SignatureAlgorithm.RS256),
+                    Map.copyOf(keys), new JWKSet(jwks));
+        } catch (GeneralSecurityException | JOSEException | IllegalArgumentException e) {
+            throw new IllegalStateException("Unable to load the RSA signing keys", e);
+        }
+    }
+
+    /**
+     * Derives the key of a rotation period as HMAC-SHA256(secret, key id).
+     *
+     * @param keyId the key id, i.e. the rotation period number
+     * @return the derived HMAC key
+     */
+    private SecretKey deriveKey(String keyId) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return Keys.hmacShaKeyFor(mac.doFinal(("smartim-jwt-key:" + keyId).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to derive JWT signing key", e);
+        }
+    }
+
+    private static byte[] decodePem(String pem) {
+        return Base64.getMimeDecoder().decode(pem.replaceAll("-----[A-Z ]+-----", ""));
+    }
+
+    /**
+     * A key that signs tokens.
+     *
+     * @param keyId     the id written to the {@code kid} header
+     * @param key       the signing key
+     * @param algorithm the signature algorithm
+     */
+    public record SigningKey(String keyId, Key key, SignatureAlgorithm algorithm) {
+    }
+
+    /**
+     * Immutable snapshot of the ring, swapped atomically on rotation.
+     */
+    private record KeySet(long activePeriod, SigningKey signingKey, Map<String, Key> verificationKeys,
+                          JWKSet jwkSet) {
+    }
+}
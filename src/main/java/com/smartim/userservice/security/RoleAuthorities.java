@@ -0,0 +1,45 @@
+package com.smartim.userservice.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interned authority lists of the user roles. Every authenticated request needs the authorities of its user;
+ * sharing one immutable list per role avoids allocating a new one each time.
+ */
+public final class RoleAuthorities {
+
+    /**
+     * Upper bound on the number of interned roles, so unexpected role values cannot grow the map without limit.
+     */
+    private static final int MAX_ROLES = 64;
+
+    private static final ConcurrentMap<String, List<GrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private RoleAuthorities() {
+    }
+
+    /**
+     * Returns the authorities of a role.
+     *
+     * @param role the role, may be {@code null}
+     * @return an immutable list holding the authority of the role, or an empty list if the role is {@code null}
+     */
+    public static List<GrantedAuthority> of(String role) {
+        if (role == null) {
+            return List.of();
+        }
+        List<GrantedAuthority> authorities = AUTHORITIES.get(role);
+        if (authorities != null) {
+            return authorities;
+        }
+        if (AUTHORITIES.size() >= MAX_ROLES) {
+            return List.of(new SimpleGrantedAuthority(role));
+        }
+        return AUTHORITIES.computeIfAbsent(role, key -> List.of(new SimpleGrantedAuthority(key)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.smartim.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded local cache of the {@link UserDetails} loaded by
+ * {@link com.smartim.userservice.service.serviceimpl.UserDetailsServiceImpl}, so authenticating a request with a
+ * known user is a hash lookup instead of a database query.
+ * Entries are removed when the status, role or password of the user changes, on every node, see
+ * {@link com.smartim.userservice.service.shared.UserCacheMaintenance}; the TTL bounds how long a missed removal
+ * can go unnoticed.
+ * A load can race a removal: the user is read before a change commits and cached after its removal ran. Loaders
+ * therefore read the eviction epoch of the user before loading and cache the result with
+ * {@link #putUserInCache(UserDetails, long)}, which drops it if the user was removed in the meantime.
+ */
+@Component
+public class UserDetailsCache implements UserCache {
+
+    /**
+     * Number of eviction epoch counters; user-names are spread over them by hash, so memory stays bounded and a
+     * removal only invalidates the loads of the few users sharing its counter.
+     */
+    private static final int EPOCH_STRIPES = 1024;
+
+    private final Cache<String, UserDetails> users;
+    private final AtomicLongArray evictionEpochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    /**
+     * Creates the cache.
+     *
+     * @param maxSize maximum number of users kept
+     * @param timeToLiveSeconds how long a loaded user is trusted, in seconds
+     */
+    public UserDetailsCache(@Value("${security.user-details-cache.max-size:10000}") long maxSize,
+                            @Value("${security.user-details-cache.ttl-seconds:300}") long timeToLiveSeconds) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(timeToLiveSeconds))
+                .build();
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return users.getIfPresent(username);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), user);
+    }
+
+    /**
+     * Caches a user loaded after reading the given eviction epoch, unless the user was removed since.
+     *
+     * @param user the loaded user
+     * @param evictionEpoch the eviction epoch of the user read before loading it, see {@link #evictionEpoch(String)}
+     */
+    public void putUserInCache(UserDetails user, long evictionEpoch) {
+        int stripe = stripe(user.getUsername());
+        if (evictionEpochs.get(stripe) != evictionEpoch) {
+            return;
+        }
+        users.put(user.getUsername(), user);
+        // A removal between the check and the put has already run its invalidation, so undo the put
+        if (evictionEpochs.get(stripe) != evictionEpoch) {
+            users.asMap().remove(user.getUsername(), user);
+        }
+    }
+
+    /**
+     * Returns the eviction epoch of a user, to be read before loading the user.
+     *
+     * @param username the user-name
+     * @return the current eviction epoch of the user
+     */
+    public long evictionEpoch(String username) {
+        return evictionEpochs.get(stripe(username));
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        evictionEpochs.incrementAndGet(stripe(username));
+        users.invalidate(username);
+    }
+
+    private static int stripe(String username) {
+        return Math.floorMod(username.toLowerCase(Locale.ROOT).hashCode(), EPOCH_STRIPES);
+    }
+}
@@ -0,0 +1,53 @@
+package com.smartim.userservice.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.smartim.userservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived local cache of user statuses used by {@link JwtAuthFilter} in stateless mode.
+ * Keeps deactivated and deleted users from authenticating with a still-valid token,
+ * while hitting the database at most once per user per TTL.
+ */
+@Component
+public class UserStatusCache {
+
+    private final LoadingCache<String, Boolean> statuses;
+
+    /**
+     * Creates the cache.
+     *
+     * @param userRepository repository used to load the status of a user on a cache miss
+     * @param timeToLiveSeconds how long a loaded status is trusted, in seconds
+     */
+    public UserStatusCache(UserRepository userRepository,
+                           @Value("${jwt.stateless.status-cache-ttl-seconds:30}") long timeToLiveSeconds) {
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(timeToLiveSeconds))
+                .build(userName -> userRepository.findUserStatusByUserName(userName).orElse(Boolean.FALSE));
+    }
+
+    /**
+     * Checks if the user exists and is active.
+     *
+     * @param userName the user-name of the user
+     * @return true if the user exists and its status is active, false otherwise
+     */
+    public boolean isActive(String userName) {
+        return Boolean.TRUE.equals(statuses.get(userName));
+    }
+
+    /**
+     * Drops the cached status of a user so the next request reloads it.
+     *
+     * @param userName the user-name of the user
+     */
+    public void evict(String userName) {
+        statuses.invalidate(userName);
+    }
+}
@@ -0,0 +1,24 @@
+package com.smartim.userservice.security;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature has already been verified by {@link com.smartim.userservice.util.JwtUtil}.
+ * Instances are immutable and shared between requests carrying the same token.
+ *
+ * @param userName  the subject of the token
+ * @param role      the role claim of the token
+ * @param email     the email claim of the token
+ * @param expiresAt the instant at which the token expires
+ */
+public record VerifiedToken(String userName, String role, String email, Instant expiresAt) {
+
+    /**
+     * Checks if the token has expired.
+     *
+     * @return true if the token has expired, false otherwise
+     */
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
@@ -22,7 +22,8 @@ public interface UserService {
 
     UserDto updateUserStatus(String userName);
 
-    List<UserDto> getUsersWithFilters(String email, String role, Boolean status);
+    UserPageDto getUsersPage(String email, String role, Boolean status, String cursor, int size,
+                             boolean includeTotal);
 
     void updateRole(String userName, String role, String updatedBy);
 
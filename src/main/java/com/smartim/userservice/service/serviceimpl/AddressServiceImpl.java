@@ -1,5 +1,6 @@
 package com.smartim.userservice.service.serviceimpl;
 
+import com.smartim.userservice.contants.UserConstants;
 import com.smartim.userservice.dto.AddAddressRequest;
 import com.smartim.userservice.dto.AddressDto;
 import com.smartim.userservice.dto.UpdateAddressRequest;
@@ -9,25 +10,52 @@ import com.smartim.userservice.exception.ResourceNotFoundException;
 import com.smartim.userservice.mapper.AddressMapper;
 import com.smartim.userservice.repository.AddressRepository;
 import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.repository.projection.AddressView;
 import com.smartim.userservice.service.AddressService;
-import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of {@link AddressService} to manage address operations for a user.
  * Supports retrieval, addition, update, and deletion of address records.
+ * Address books are read through the {@code addresses} cache declared by
+ * {@link com.smartim.userservice.config.CacheConfig}; every change evicts the address book of each affected
+ * user once its transaction commits, so concurrent changes cannot leave an older address book cached. The cache
+ * is used directly rather than through annotations, since empty address books are cached too and the owners of
+ * changed addresses are only known once they are loaded.
  */
 @Service
-@RequiredArgsConstructor
 public class AddressServiceImpl implements AddressService {
 
     private final AddressRepository addressRepository;
     private final UserRepository userRepository;
     private final AddressMapper addressMapper;
+    private final CacheManager cacheManager;
+    /** Read-only transaction wrapping cache misses, so cache hits never take a database connection. */
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AddressServiceImpl(AddressRepository addressRepository, UserRepository userRepository,
+                              AddressMapper addressMapper, CacheManager cacheManager,
+                              PlatformTransactionManager transactionManager) {
+        this.addressRepository = addressRepository;
+        this.userRepository = userRepository;
+        this.addressMapper = addressMapper;
+        this.cacheManager = cacheManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
     /**
-     * Retrieves the list of addresses for the given user.
+     * Retrieves the list of addresses for the given user, from the cache when possible.
+     * Only a miss opens a transaction: the addresses are then read as projections in a read-only transaction.
      *
      * @param userName the username (or email) of the user
      * @return List of {@link AddressDto} representing the user's addresses
@@ -35,15 +63,17 @@ public class AddressServiceImpl implements AddressService {
      */
     @Override
     public List<AddressDto> getAddresses(String userName) {
-        List<Address> addresses = addressRepository.findByUserName(userName);
-        if(addresses==null || addresses.isEmpty())
+        List<AddressDto> addresses = addressCache().get(userName,
+                () -> readOnlyTransaction.execute(status -> loadAddresses(userName)));
+        if(addresses.isEmpty())
             throw new ResourceNotFoundException("Addresses", "user-name", userName);
-        return addressMapper.toAddressDtoListFromAddressList(addresses);
+        return addresses;
     }
 
     /**
      * Adds a new address for the specified user.
      * Validates that the user exists and doesn't already have 20 addresses.
+     * The cached address book of the owner is evicted once the transaction commits.
      *
      * @param userName the username of the user
      * @param address the address to add
@@ -51,6 +81,7 @@ public class AddressServiceImpl implements AddressService {
      * @throws ResourceNotFoundException if the user is not found
      * @throws RequestProcessingException if the user already has 20 addresses
      */
+    @Transactional
     @Override
     public AddressDto addAddress(String userName, AddAddressRequest address) {
         userRepository.findByUserName(userName)
@@ -58,35 +89,70 @@ public class AddressServiceImpl implements AddressService {
         List<Address> addressList = addressRepository.findByUserName(userName);
         if(addressList.size()==20)
             throw new RequestProcessingException("More than 20 address can't be added.");
-        return addressMapper.toAddressDtoFromAddress(addressRepository.save(addressMapper.toAddressEntity(address)));
+        Address saved = addressRepository.save(addressMapper.toAddressEntity(address));
+        evictAddresses(saved.getUserName());
+        return addressMapper.toAddressDtoFromAddress(saved);
     }
 
     /**
      * Updates an existing address for the given user.
+     * The cached address books of the previous and new owners are evicted once the transaction commits.
      *
      * @param userName the username of the user
      * @param updatedAddress the address data to update
      * @return the updated address as {@link AddressDto}
      * @throws ResourceNotFoundException if the address is not found by ID
      */
+    @Transactional
     @Override
     public AddressDto updateAddress(String userName, UpdateAddressRequest updatedAddress) {
         Address existing = addressRepository.findById(updatedAddress.getId()).orElseThrow(
                 () -> new ResourceNotFoundException("Address", "user-name", userName));
+        String owner = existing.getUserName();
         addressMapper.toAddressEntity(updatedAddress, existing);
 
-        return addressMapper.toAddressDtoFromAddress(addressRepository.save(existing));
+        Address saved = addressRepository.save(existing);
+        evictAddresses(owner);
+        if (!Objects.equals(owner, saved.getUserName())) {
+            evictAddresses(saved.getUserName());
+        }
+        return addressMapper.toAddressDtoFromAddress(saved);
     }
 
     /**
-     * Deletes all addresses with the given IDs.
+     * Deletes all addresses with the given IDs and evicts the cached address books of their owners once the
+     * transaction commits.
      *
      * @param addressIds list of address IDs to delete
      */
+    @Transactional
     @Override
     public void deleteAddresses(List<Long> addressIds) {
         List<Address> address = addressRepository.findAllById(addressIds);
         addressRepository.deleteAll(address);
+        Set<String> owners = address.stream().map(Address::getUserName).collect(Collectors.toSet());
+        owners.forEach(this::evictAddresses);
+    }
+
+    /**
+     * Evicts the cached address book of a user. The cache is transaction-aware, so inside a transaction the
+     * eviction happens after the commit, and the next read loads the committed address book.
+     */
+    private void evictAddresses(String userName) {
+        if (userName != null) {
+            addressCache().evict(userName);
+        }
     }
-}
 
+    /**
+     * Loads the address book of a user as projections, without hydrating the address entities.
+     */
+    private List<AddressDto> loadAddresses(String userName) {
+        List<AddressView> addresses = addressRepository.findViewsByUserName(userName);
+        return addresses.isEmpty() ? List.of() : addressMapper.toAddressDtoListFromViewList(addresses);
+    }
+
+    private Cache addressCache() {
+        return cacheManager.getCache(UserConstants.ADDRESSES_CACHE);
+    }
+}
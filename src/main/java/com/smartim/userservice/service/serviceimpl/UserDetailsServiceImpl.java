@@ -3,13 +3,16 @@ package com.smartim.userservice.service.serviceimpl;
 import com.smartim.userservice.contants.UserConstants;
 import com.smartim.userservice.entity.User;
 import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.security.CachedUserDetails;
+import com.smartim.userservice.security.RoleAuthorities;
+import com.smartim.userservice.security.UserDetailsCache;
+import com.smartim.userservice.service.shared.NegativeLookupCache;
+import com.smartim.userservice.service.shared.NegativeLookupCache.Lookup;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import java.util.List;
 
 /**
  * Custom implementation of {@link UserDetailsService} for Spring Security.
@@ -20,9 +23,14 @@ import java.util.List;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository repo;
+    private final NegativeLookupCache negativeLookupCache;
+    private final UserDetailsCache userDetailsCache;
 
     /**
      * Loads the user by their username and maps it to Spring Security's {@link UserDetails} object.
+     * Users loaded recently are served from {@link UserDetailsCache} until their status, role or password changes;
+     * a user changed while being loaded is not cached.
+     * User-names recently found missing, e.g. from tokens of deleted users, are rejected without a query.
      *
      * @param username the username to search for (mapped to userName field)
      * @return a UserDetails object containing username, password, and authorities
@@ -30,9 +38,21 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) {
-        User user = repo.findByUserName(username).orElseThrow(
-                () -> new UsernameNotFoundException(UserConstants.USER_NOT_FOUND)
-        );
-        return new org.springframework.security.core.userdetails.User(user.getUserName(), user.getPassword(), List.of(new SimpleGrantedAuthority(user.getRole())));
+        UserDetails cached = userDetailsCache.getUserFromCache(username);
+        if (cached != null) {
+            return cached;
+        }
+        if (negativeLookupCache.isMissing(Lookup.USER_NAME, username)) {
+            throw new UsernameNotFoundException(UserConstants.USER_NOT_FOUND);
+        }
+        long evictionEpoch = userDetailsCache.evictionEpoch(username);
+        User user = repo.findByUserName(username).orElseThrow(() -> {
+            negativeLookupCache.markMissing(Lookup.USER_NAME, username);
+            return new UsernameNotFoundException(UserConstants.USER_NOT_FOUND);
+        });
+        UserDetails userDetails = new CachedUserDetails(user.getUserName(), user.getPassword(),
+                RoleAuthorities.of(user.getRole()));
+        userDetailsCache.putUserInCache(userDetails, evictionEpoch);
+        return userDetails;
     }
 }
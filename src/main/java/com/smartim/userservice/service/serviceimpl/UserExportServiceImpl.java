@@ -0,0 +1,156 @@
+package com.smartim.userservice.service.serviceimpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smartim.userservice.contants.UserConstants;
+import com.smartim.userservice.dto.UserDto;
+import com.smartim.userservice.entity.User;
+import com.smartim.userservice.mapper.UserMapper;
+import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.service.UserExportService;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Service implementation exporting users for reporting jobs.
+ * Users are read through a forward-only cursor of {@link UserRepository#streamUsers(String, Boolean, int)}, mapped
+ * and written one at a time, and detached once written, so memory use does not depend on the number of users.
+ * Formats:
+ *   NDJSON: one JSON user per line, with the fields of {@link UserDto}
+ *   CSV: a header line, then one user per line; free-text fields a spreadsheet would read as a formula are
+ *   prefixed with a quote
+ * Configuration:
+ *   {@code user.export.fetch-size}: rows fetched per round trip, {@value UserConstants#EXPORT_FETCH_SIZE} by
+ *   default; {@code -2147483648} makes MySQL stream rows one at a time without server-side cursors
+ */
+@Service
+public class UserExportServiceImpl implements UserExportService {
+
+    private static final String CSV_HEADER =
+            "userName,email,fullName,mobileNumber,role,userStatus,createdOn,createdBy,updatedOn,updatedBy";
+
+    /**
+     * First characters of a value a spreadsheet would evaluate as a formula.
+     */
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    /**
+     * Mobile numbers are exported as entered; only a value which is not a phone number is treated as free text.
+     */
+    private static final Pattern PHONE_NUMBER = Pattern.compile("\\+?[0-9][0-9 ().-]*");
+
+    private final UserRepository repo;
+    private final UserMapper mapper;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+    private final int fetchSize;
+
+    /**
+     * Creates the service.
+     *
+     * @param repo the user repository
+     * @param mapper the user mapper
+     * @param entityManager the entity manager the streamed users are detached from
+     * @param objectMapper the shared object mapper, used without indentation so each user fits on one line
+     * @param fetchSize the number of rows fetched per round trip
+     */
+    public UserExportServiceImpl(UserRepository repo, UserMapper mapper, EntityManager entityManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${user.export.fetch-size:" + UserConstants.EXPORT_FETCH_SIZE + "}") int fetchSize) {
+        this.repo = repo;
+        this.mapper = mapper;
+        this.entityManager = entityManager;
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the users matching optional filters, ordered by id, to a stream.
+     * The stream is flushed but not closed.
+     *
+     * @param role   Optional role filter
+     * @param status Optional status filter
+     * @param format the format to write
+     * @param out    the stream to write to
+     * @throws IOException if the stream cannot be written, e.g. because the client went away
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportUsers(String role, Boolean status, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try (Stream<User> users = repo.streamUsers(role, status, fetchSize)) {
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                UserDto userDto = mapper.toUserDtoFromUser(user);
+                entityManager.detach(user);
+                if (format == Format.CSV) {
+                    writeCsv(writer, userDto);
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(userDto));
+                }
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(Writer writer, UserDto userDto) throws IOException {
+        String mobileNumber = userDto.getMobileNumber();
+        writer.write(csv(userDto.getUserName(), true));
+        writer.write(',');
+        writer.write(csv(userDto.getEmail(), true));
+        writer.write(',');
+        writer.write(csv(userDto.getFullName(), true));
+        writer.write(',');
+        writer.write(csv(mobileNumber, mobileNumber != null && !PHONE_NUMBER.matcher(mobileNumber).matches()));
+        writer.write(',');
+        writer.write(csv(userDto.getRole(), true));
+        writer.write(',');
+        writer.write(csv(userDto.getUserStatus(), false));
+        writer.write(',');
+        writer.write(csv(userDto.getCreatedOn(), false));
+        writer.write(',');
+        writer.write(csv(userDto.getCreatedBy(), true));
+        writer.write(',');
+        writer.write(csv(userDto.getUpdatedOn(), false));
+        writer.write(',');
+        writer.write(csv(userDto.getUpdatedBy(), true));
+    }
+
+    /**
+     * Formats a CSV field: quoted if it contains a separator, a quote or a line break, and, for free text, prefixed
+     * with a quote if a spreadsheet would read it as a formula.
+     */
+    private static String csv(Object value, boolean freeText) {
+        if (value == null) {
+            return "";
+        }
+        String field = value.toString();
+        if (freeText && !field.isEmpty() && FORMULA_PREFIXES.indexOf(field.charAt(0)) >= 0) {
+            field = "'" + field;
+        }
+        if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0
+                || field.indexOf('\r') >= 0) {
+            return '"' + field.replace("\"", "\"\"") + '"';
+        }
+        return field;
+    }
+}
@@ -3,14 +3,25 @@ package com.smartim.userservice.service.serviceimpl;
 import com.smartim.userservice.contants.UserConstants;
 import com.smartim.userservice.dto.*;
 import com.smartim.userservice.entity.User;
+import com.smartim.userservice.event.UserChangedEvent;
 import com.smartim.userservice.exception.ResourceNotFoundException;
 import com.smartim.userservice.exception.UserAlreadyExistsException;
 import com.smartim.userservice.mapper.UserMapper;
 import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.repository.projection.UserListView;
+import com.smartim.userservice.repository.projection.UserView;
 import com.smartim.userservice.service.UserService;
+import com.smartim.userservice.service.shared.NegativeLookupCache;
+import com.smartim.userservice.service.shared.NegativeLookupCache.Lookup;
 import com.smartim.userservice.util.JwtUtil;
+import com.smartim.userservice.util.KeysetCursor;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -25,6 +36,12 @@ import java.util.List;
  * This class handles user registration, login, and retrieval operations
  * such as fetching user details by email or by role. It also generates JWT tokens
  * upon successful registration and login for authentication purposes.
+ * Lookups which found nothing are remembered for a short time in {@link NegativeLookupCache}.
+ * Lookups are cached declaratively in the caches declared by {@link com.smartim.userservice.config.CacheConfig}.
+ * On a miss they run in read-only transactions and read {@link UserView} projections, so the password hash is
+ * not read and no entity is tracked or flushed.
+ * Every change to an existing user publishes a {@link UserChangedEvent}, which evicts the cached copies
+ * of the user once the change is committed; changes which may alter a list of users clear the cached lists.
  * Uses {@link UserRepository} for persistence, {@link JwtUtil} for JWT generation,
  * and {@link PasswordEncoder} for password hashing and verification.
  * Key operations:
@@ -45,6 +62,8 @@ public class UserServiceImpl implements UserService {
     private final PasswordEncoder encoder;
     private final UserMapper mapper;
     private final EntityManager entityManager;
+    private final NegativeLookupCache negativeLookupCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Registers a new user after checking for existing users with the same email or mobile number.
@@ -53,6 +72,7 @@ public class UserServiceImpl implements UserService {
      * @return JWT token after successful registration.
      * @throws UsernameNotFoundException if user already exists.
      */
+    @CacheEvict(cacheNames = {UserConstants.USERS_BY_ROLE_CACHE, UserConstants.USER_SEARCH_CACHE}, allEntries = true)
     @Override
     public String register(RegisterRequest request) {
         List<User> existingUser = repo.findByEmailOrMobileNumber
@@ -64,6 +84,9 @@ public class UserServiceImpl implements UserService {
         }
         User user = mapper.toUserEntity(request, encoder);
         repo.save(user);
+        negativeLookupCache.evict(Lookup.USER_NAME, user.getUserName());
+        negativeLookupCache.evict(Lookup.EMAIL, user.getEmail());
+        negativeLookupCache.evict(Lookup.ROLE, user.getRole());
         return jwtUtil.generateToken(user.getUserName(), user.getRole(), user.getEmail());
     }
 
@@ -75,13 +98,19 @@ public class UserServiceImpl implements UserService {
      * @return {@link UserDto} representing the user.
      * @throws UsernameNotFoundException if user-name does not exist or status is inactive i.e. false .
      */
+    @CacheEvict(cacheNames = {UserConstants.USERS_BY_ROLE_CACHE, UserConstants.USER_SEARCH_CACHE}, allEntries = true)
+    @Transactional
     @Override
     public UserDto updateUserProfile(String userName, UpdateUserRequest request) {
         User user = repo.findByUserNameAndUserStatus(userName, true).orElseThrow(
                 () -> new UsernameNotFoundException(UserConstants.USER_NOT_FOUND)
         );
+        String previousEmail = user.getEmail();
+        String previousMobileNumber = user.getMobileNumber();
         mapper.toUserEntity(request, user);
-        return mapper.toUserDtoFromUser(repo.save(user));
+        UserDto userDto = mapper.toUserDtoFromUser(repo.save(user));
+        eventPublisher.publishEvent(UserChangedEvent.of(user, previousEmail, previousMobileNumber));
+        return userDto;
     }
 
     /**
@@ -91,17 +120,22 @@ public class UserServiceImpl implements UserService {
      * @return {@link UserDto} representing the user.
      * @throws UsernameNotFoundException if user-name does not exist or status is inactive i.e. false .
      */
+    @CacheEvict(cacheNames = {UserConstants.USERS_BY_ROLE_CACHE, UserConstants.USER_SEARCH_CACHE}, allEntries = true)
+    @Transactional
     @Override
     public UserDto updateUserStatus(String userName) {
         User user = repo.findByUserName(userName).orElseThrow(
                 () -> new UsernameNotFoundException(UserConstants.USER_NOT_FOUND)
         );
         user.setUserStatus(!user.getUserStatus());
-        return mapper.toUserDtoFromUser(repo.save(user));
+        UserDto userDto = mapper.toUserDtoFromUser(repo.save(user));
+        eventPublisher.publishEvent(changeOf(user));
+        return userDto;
     }
 
     /**
      * Authenticates user credentials and returns a JWT token.
+     * Passwords hashed with an outdated cost or algorithm are re-hashed on success.
      *
      * @param request contains username and password.
      * @return JWT token if authentication is successful.
@@ -110,11 +144,14 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public String login(LoginRequest request) {
-        User user = repo.findByUserName(request.getUserName()).orElseThrow(
-                () -> new UsernameNotFoundException(UserConstants.USER_NOT_FOUND)
-        );
+        User user = findByUserName(request.getUserName());
         if (!encoder.matches(request.getPassword(), user.getPassword()))
             throw new BadCredentialsException(UserConstants.ENTERED_WRONG_PASSWORD);
+        // Re-hash passwords stored with an outdated cost or algorithm while the raw password is at hand
+        if (encoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(encoder.encode(request.getPassword()));
+            repo.save(user);
+        }
         return jwtUtil.generateToken(user.getUserName(), user.getRole(), user.getEmail());
     }
 
@@ -125,12 +162,18 @@ public class UserServiceImpl implements UserService {
      * @return {@link UserDto} representing the user.
      * @throws ResourceNotFoundException if the user is not found.
      */
+    @Cacheable(cacheNames = UserConstants.USERS_BY_EMAIL_CACHE, sync = true)
+    @Transactional(readOnly = true)
     @Override
     public UserDto getUserByEmail(String email) {
-        User user =  repo.findByEmail(email).orElseThrow(
-                () -> new ResourceNotFoundException("User", "email", email)
-        );
-        return mapper.toUserDtoFromUser(user);
+        if (negativeLookupCache.isMissing(Lookup.EMAIL, email)) {
+            throw new ResourceNotFoundException("User", "email", email);
+        }
+        UserView user = repo.findViewByEmail(email).orElseThrow(() -> {
+            negativeLookupCache.markMissing(Lookup.EMAIL, email);
+            return new ResourceNotFoundException("User", "email", email);
+        });
+        return mapper.toUserDtoFromView(user);
     }
 
     /**
@@ -140,39 +183,94 @@ public class UserServiceImpl implements UserService {
      * @return List of {@link UserDto} objects.
      * @throws ResourceNotFoundException if no users are found with the given role.
      */
+    @Cacheable(cacheNames = UserConstants.USERS_BY_ROLE_CACHE, sync = true)
+    @Transactional(readOnly = true)
     @Override
     public List<UserDto> getUsersByRole(String role) {
-        List<User> user =  repo.findByRole(role).orElseThrow(
+        if (negativeLookupCache.isMissing(Lookup.ROLE, role)) {
+            return List.of();
+        }
+        List<UserView> users = repo.findViewsByRole(role).orElseThrow(
                 () -> new ResourceNotFoundException("User", "role", role)
         );
-        return mapper.toUserDtoListFromUserList(user);
+        if (users.isEmpty()) {
+            negativeLookupCache.markMissing(Lookup.ROLE, role);
+        }
+        return mapper.toUserDtoListFromViewList(users);
     }
 
     /**
-     * Loads the user by their username and maps it to Spring Security's {@link UserDetails} object.
+     * Retrieves a user by user-name, without querying the database for user-names recently found missing.
      *
-     * @param userName the username to search for (mapped to userName field)
-     * @return a UserDetails object containing username, password, and authorities
+     * @param userName the user-name of the user
+     * @return {@link UserDto} representing the user
      * @throws UsernameNotFoundException if the user is not found
      */
+    @Cacheable(cacheNames = UserConstants.USERS_CACHE, sync = true)
+    @Transactional(readOnly = true)
     @Override
     public UserDto getUserByUserName(String userName) {
-        User user = repo.findByUserName(userName).orElseThrow(
-                () -> new UsernameNotFoundException(UserConstants.USER_NOT_FOUND)
-        );
-        return mapper.toUserDtoFromUser(user);
+        if (negativeLookupCache.isMissing(Lookup.USER_NAME, userName)) {
+            throw new UsernameNotFoundException(UserConstants.USER_NOT_FOUND);
+        }
+        UserView user = repo.findViewByUserName(userName).orElseThrow(() -> {
+            negativeLookupCache.markMissing(Lookup.USER_NAME, userName);
+            return new UsernameNotFoundException(UserConstants.USER_NOT_FOUND);
+        });
+        return mapper.toUserDtoFromView(user);
     }
 
     /**
-     * Retrieves users based on optional filters such as email, role, or status.
+     * Retrieves one page of the users matching optional filters such as email, role, or status.
+     * Pages are read by keyset on the id: a page starts after the last id of the previous one, carried by an
+     * opaque cursor, so each page is an index range scan of at most {@code size + 1} rows whatever its position.
+     * The total is only computed for the first page: it comes from the table statistics when no filter is set,
+     * and from a count of the matching users otherwise.
      *
      * @param email  Optional email filter
      * @param role   Optional role filter
      * @param status Optional status filter
-     * @return List of matching users
+     * @param cursor Optional cursor of the page, as returned with the previous page
+     * @param size   Number of users per page, capped at {@link UserConstants#MAX_PAGE_SIZE}
+     * @param includeTotal whether to estimate the number of matching users
+     * @return the page of matching users, with the cursor of the next page if there is one
      */
+    @Cacheable(cacheNames = UserConstants.USER_SEARCH_CACHE,
+            key = "#email + ':' + #role + ':' + #status + ':' + #cursor + ':' + #size + ':' + #includeTotal",
+            sync = true)
+    @Transactional(readOnly = true)
     @Override
-    public List<UserDto> getUsersWithFilters(String email, String role, Boolean status) {
+    public UserPageDto getUsersPage(String email, String role, Boolean status, String cursor, int size,
+                                    boolean includeTotal) {
+        int pageSize = Math.clamp(size, 1, UserConstants.MAX_PAGE_SIZE);
+        Specification<User> filters = filters(email, role, status);
+        Specification<User> page = filters;
+        if (cursor != null) {
+            long lastId = KeysetCursor.decode(cursor);
+            page = page.and((root, query, cb) -> cb.greaterThan(root.get("id"), lastId));
+        }
+
+        List<UserListView> users = repo.findBy(page,
+                query -> query.as(UserListView.class).sortBy(Sort.by("id")).limit(pageSize + 1).all());
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextCursor = KeysetCursor.encode(users.getLast().getId());
+        }
+
+        Long totalEstimate = null;
+        if (includeTotal && cursor == null) {
+            totalEstimate = email == null && role == null && status == null
+                    ? estimateUserCount()
+                    : repo.count(filters);
+        }
+        return new UserPageDto(users.stream().map(mapper::toUserDtoFromView).toList(), nextCursor, totalEstimate);
+    }
+
+    /**
+     * Builds the specification of the optional user filters.
+     */
+    private Specification<User> filters(String email, String role, Boolean status) {
         Specification<User> spec = (root, query, cb) -> cb.conjunction();
 
         if (email != null) {
@@ -187,7 +285,19 @@ public class UserServiceImpl implements UserService {
             spec = spec.and((root, query, cb) -> cb.equal(root.get("userStatus"), status));
         }
 
-        return mapper.toUserDtoListFromUserList(repo.findAll(spec));
+        return spec;
+    }
+
+    /**
+     * Estimates the number of users from the table statistics, counting them if the statistics are unavailable,
+     * e.g. on another database than MySQL.
+     */
+    private long estimateUserCount() {
+        try {
+            return repo.estimateCount().orElseGet(repo::count);
+        } catch (DataAccessException e) {
+            return repo.count();
+        }
     }
 
     /**
@@ -196,6 +306,8 @@ public class UserServiceImpl implements UserService {
      * @param userName user-name of the user
      * @param role New role
      */
+    @CacheEvict(cacheNames = {UserConstants.USERS_BY_ROLE_CACHE, UserConstants.USER_SEARCH_CACHE}, allEntries = true)
+    @Transactional
     @Override
     public void updateRole(String userName, String role, String updatedBy) {
         User user = repo.findByUserName(userName).orElseThrow(
@@ -203,6 +315,8 @@ public class UserServiceImpl implements UserService {
         );
         user.setRole(role);
         repo.save(user);
+        negativeLookupCache.evict(Lookup.ROLE, role);
+        eventPublisher.publishEvent(changeOf(user));
     }
 
 
@@ -211,6 +325,7 @@ public class UserServiceImpl implements UserService {
      *
      * @param userName user-name of the user
      */
+    @CacheEvict(cacheNames = {UserConstants.USERS_BY_ROLE_CACHE, UserConstants.USER_SEARCH_CACHE}, allEntries = true)
     @Transactional
     @Override
     public void deleteUser(String userName) {
@@ -218,8 +333,19 @@ public class UserServiceImpl implements UserService {
                 () -> new UsernameNotFoundException(UserConstants.USER_NOT_FOUND)
         );
         entityManager.remove(user);
+        eventPublisher.publishEvent(changeOf(user));
     }
 
+    /**
+     * Resets the password of a user after verifying the old password.
+     *
+     * @param resetPasswordRequest contains the user-name, the old and the new password.
+     * @return a success message.
+     * @throws UsernameNotFoundException if the user is not found.
+     * @throws BadCredentialsException if the old password is wrong or the reset type is not supported.
+     */
+    @Transactional
+    @Override
     public String resetUserPassword(ResetPasswordRequest resetPasswordRequest){
         User user = repo.findByUserName(resetPasswordRequest.getUserName()).orElseThrow(
                 () -> new UsernameNotFoundException(UserConstants.USER_NOT_FOUND)
@@ -234,7 +360,29 @@ public class UserServiceImpl implements UserService {
         }
         user.setPassword(encoder.encode(resetPasswordRequest.getNewPassword()));
         repo.save(user);
+        eventPublisher.publishEvent(changeOf(user));
         return UserConstants.PASSWORD_RESET_SUCCESSFULLY;
     }
 
+    private static UserChangedEvent changeOf(User user) {
+        return UserChangedEvent.of(user, user.getEmail(), user.getMobileNumber());
+    }
+
+    /**
+     * Finds a user by user-name, without querying the database for user-names recently found missing.
+     *
+     * @param userName the user-name of the user.
+     * @return the user.
+     * @throws UsernameNotFoundException if the user is not found.
+     */
+    private User findByUserName(String userName) {
+        if (negativeLookupCache.isMissing(Lookup.USER_NAME, userName)) {
+            throw new UsernameNotFoundException(UserConstants.USER_NOT_FOUND);
+        }
+        return repo.findByUserName(userName).orElseThrow(() -> {
+            negativeLookupCache.markMissing(Lookup.USER_NAME, userName);
+            return new UsernameNotFoundException(UserConstants.USER_NOT_FOUND);
+        });
+    }
+
 }
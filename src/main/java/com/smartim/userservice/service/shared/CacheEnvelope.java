@@ -0,0 +1,33 @@
+package com.smartim.userservice.service.shared;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Cached value stored together with its soft expiry and the time it took to compute.
+ * The Redis TTL of the entry is the hard expiry; past the soft expiry the value is still served
+ * while a refresh runs in the background.
+ * Unknown properties are ignored, so an entry cached before envelopes were introduced, a bare user, reads as an
+ * envelope without a value and counts as a miss instead of failing the request.
+ *
+ * @param value         the cached value
+ * @param softExpiresAt the instant, in epoch milliseconds, after which the value should be refreshed
+ * @param delta         the time it took to load the value, in milliseconds
+ * @param <T>           the type of the cached value
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CacheEnvelope<T>(T value, long softExpiresAt, long delta) {
+
+    /**
+     * Decides whether the value should be refreshed now, using probabilistic early expiration (XFetch):
+     * a refresh becomes more likely as the soft expiry approaches and values that are slow to load are
+     * refreshed earlier. Always true once the soft expiry has passed.
+     *
+     * @param now    the current time, in epoch milliseconds
+     * @param beta   how eagerly to refresh early; 0 disables early refresh, values above 1 favour earlier refresh
+     * @param random a uniformly distributed random number in the range (0, 1]
+     * @return true if the value should be refreshed
+     */
+    public boolean shouldRefresh(long now, double beta, double random) {
+        return now - delta * beta * Math.log(random) >= softExpiresAt;
+    }
+}
@@ -0,0 +1,260 @@
+package com.smartim.userservice.service.shared;
+
+import com.smartim.userservice.contants.UserConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Micrometer metrics of the Redis backed caches, tagged with the keyspace of each key, i.e. the key prefix such
+ * as {@code users_name_} or {@code user_email_}. Keys outside the known keyspaces are reported as {@code other}.
+ * Meters:
+ *   {@code cache.keyspace.gets}: lookups, tagged with {@code result} (hit or miss) and {@code tier} (local or redis)
+ *   {@code cache.keyspace.load}: time spent loading missing values from the database
+ *   {@code cache.keyspace.serialization}: time spent encoding and decoding values, tagged with {@code operation}
+ *   {@code cache.keyspace.payload}: size of the values read and written, in bytes, tagged with {@code operation}
+ *   {@code cache.keyspace.errors}: failed operations, tagged with {@code operation}
+ */
+@Component
+public class CacheMetrics {
+
+    static final String OTHER = "other";
+    static final String LOCAL = "local";
+    static final String REDIS = "redis";
+    // Values of the operation tag
+    static final String READ = "read";
+    static final String WRITE = "write";
+    static final String DELETE = "delete";
+    static final String ENCODE = "encode";
+    static final String DECODE = "decode";
+
+    /**
+     * Known key prefixes, longest first so the most specific prefix wins.
+     */
+    private static final List<String> KEYSPACES = Stream.of(
+                    UserConstants.USER_NAME_KEY,
+                    UserConstants.USER_EMAIL_KEY,
+                    UserConstants.USER_MOBILE_KEY,
+                    UserConstants.USER_ADDRESSES_KEY,
+                    UserConstants.USERS_BY_ROLE_KEY,
+                    UserConstants.USER_SEARCH_KEY)
+            .sorted(Comparator.comparingInt(String::length).reversed())
+            .toList();
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, KeyspaceMeters> keyspaces = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Statistics of one keyspace since startup.
+     *
+     * @param hits            lookups found in Redis
+     * @param localHits       lookups found in an in-process cache in front of Redis
+     * @param misses          lookups found nowhere
+     * @param hitRatio        share of lookups which were hits, in either tier
+     * @param errors          failed operations
+     * @param loads           values loaded from the database
+     * @param meanLoadMs      mean time to load a value from the database, in milliseconds
+     * @param meanEncodeMs    mean time to encode a value, in milliseconds
+     * @param meanDecodeMs    mean time to decode a value, in milliseconds
+     * @param meanReadBytes   mean size of the values read, in bytes
+     * @param meanWriteBytes  mean size of the values written, in bytes
+     */
+    public record KeyspaceStats(long hits, long localHits, long misses, double hitRatio, long errors, long loads,
+                                double meanLoadMs, double meanEncodeMs, double meanDecodeMs,
+                                double meanReadBytes, double meanWriteBytes) {
+    }
+
+    /**
+     * Returns the keyspace a key belongs to.
+     *
+     * @param key the cache key
+     * @return the key prefix of the keyspace, or {@code other}
+     */
+    public String keyspace(String key) {
+        for (String keyspace : KEYSPACES) {
+            if (key.startsWith(keyspace)) {
+                return keyspace;
+            }
+        }
+        return OTHER;
+    }
+
+    /**
+     * Counts a lookup which found the value.
+     *
+     * @param key the looked up key
+     * @param tier the tier the value was found in, {@code local} or {@code redis}
+     */
+    public void hit(String key, String tier) {
+        KeyspaceMeters meters = meters(key);
+        (LOCAL.equals(tier) ? meters.localHits : meters.hits).increment();
+    }
+
+    /**
+     * Counts a lookup which found nothing.
+     *
+     * @param key the looked up key
+     */
+    public void miss(String key) {
+        meters(key).misses.increment();
+    }
+
+    /**
+     * Records the time spent loading a missing value from the database.
+     *
+     * @param key the key of the loaded value
+     * @param nanos the load time, in nanoseconds
+     */
+    public void recordLoad(String key, long nanos) {
+        meters(key).load.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the time spent encoding a value and its encoded size.
+     *
+     * @param key the key of the value
+     * @param nanos the encoding time, in nanoseconds
+     * @param bytes the encoded size, in bytes
+     */
+    public void recordEncode(String key, long nanos, int bytes) {
+        KeyspaceMeters meters = meters(key);
+        meters.encode.record(nanos, TimeUnit.NANOSECONDS);
+        meters.writeBytes.record(bytes);
+    }
+
+    /**
+     * Records the time spent decoding a value and its encoded size.
+     *
+     * @param key the key of the value
+     * @param nanos the decoding time, in nanoseconds
+     * @param bytes the encoded size, in bytes
+     */
+    public void recordDecode(String key, long nanos, int bytes) {
+        KeyspaceMeters meters = meters(key);
+        meters.decode.record(nanos, TimeUnit.NANOSECONDS);
+        meters.readBytes.record(bytes);
+    }
+
+    /**
+     * Counts a failed operation on a key.
+     *
+     * @param key the key
+     * @param operation the failed operation, e.g. {@code read} or {@code write}
+     */
+    public void error(String key, String operation) {
+        meters(key).error(operation).increment();
+    }
+
+    /**
+     * Counts a failed operation on several keys, once per keyspace involved.
+     *
+     * @param keys the keys
+     * @param operation the failed operation, e.g. {@code read} or {@code write}
+     */
+    public void error(Collection<String> keys, String operation) {
+        keys.stream().map(this::keyspace).distinct()
+                .forEach(keyspace -> keyspaceMeters(keyspace).error(operation).increment());
+    }
+
+    /**
+     * Returns the statistics of every keyspace used since startup.
+     *
+     * @return the statistics by keyspace, sorted by keyspace
+     */
+    public Map<String, KeyspaceStats> stats() {
+        Map<String, KeyspaceStats> stats = new TreeMap<>();
+        keyspaces.forEach((keyspace, meters) -> stats.put(keyspace, meters.stats()));
+        return stats;
+    }
+
+    private KeyspaceMeters meters(String key) {
+        return keyspaceMeters(keyspace(key));
+    }
+
+    private KeyspaceMeters keyspaceMeters(String keyspace) {
+        return keyspaces.computeIfAbsent(keyspace, KeyspaceMeters::new);
+    }
+
+    /**
+     * The meters of one keyspace, registered on first use.
+     */
+    private final class KeyspaceMeters {
+
+        private final String keyspace;
+        private final Counter hits;
+        private final Counter localHits;
+        private final Counter misses;
+        private final Timer load;
+        private final Timer encode;
+        private final Timer decode;
+        private final DistributionSummary readBytes;
+        private final DistributionSummary writeBytes;
+        private final ConcurrentMap<String, Counter> errors = new ConcurrentHashMap<>();
+
+        private KeyspaceMeters(String keyspace) {
+            this.keyspace = keyspace;
+            this.hits = gets("hit", REDIS);
+            this.localHits = gets("hit", LOCAL);
+            this.misses = gets("miss", REDIS);
+            this.load = Timer.builder("cache.keyspace.load").tag("keyspace", keyspace)
+                    .description("Time spent loading missing cache values from the database")
+                    .register(meterRegistry);
+            this.encode = serialization(ENCODE);
+            this.decode = serialization(DECODE);
+            this.readBytes = payload(READ);
+            this.writeBytes = payload(WRITE);
+        }
+
+        private Counter gets(String result, String tier) {
+            return Counter.builder("cache.keyspace.gets").tag("keyspace", keyspace)
+                    .tag("result", result).tag("tier", tier)
+                    .description("Cache lookups").register(meterRegistry);
+        }
+
+        private Timer serialization(String operation) {
+            return Timer.builder("cache.keyspace.serialization").tag("keyspace", keyspace)
+                    .tag("operation", operation)
+                    .description("Time spent encoding and decoding cache values").register(meterRegistry);
+        }
+
+        private DistributionSummary payload(String operation) {
+            return DistributionSummary.builder("cache.keyspace.payload").tag("keyspace", keyspace)
+                    .tag("operation", operation).baseUnit("bytes")
+                    .description("Size of the cache values read and written").register(meterRegistry);
+        }
+
+        private Counter error(String operation) {
+            return errors.computeIfAbsent(operation, op -> Counter.builder("cache.keyspace.errors")
+                    .tag("keyspace", keyspace).tag("operation", op)
+                    .description("Failed cache operations").register(meterRegistry));
+        }
+
+        private KeyspaceStats stats() {
+            long hitCount = (long) hits.count();
+            long localHitCount = (long) localHits.count();
+            long missCount = (long) misses.count();
+            long lookups = hitCount + localHitCount + missCount;
+            return new KeyspaceStats(hitCount, localHitCount, missCount,
+                    lookups == 0 ? 0 : (double) (hitCount + localHitCount) / lookups,
+                    (long) errors.values().stream().mapToDouble(Counter::count).sum(),
+                    load.count(), load.mean(TimeUnit.MILLISECONDS), encode.mean(TimeUnit.MILLISECONDS),
+                    decode.mean(TimeUnit.MILLISECONDS), readBytes.mean(), writeBytes.mean());
+        }
+    }
+}
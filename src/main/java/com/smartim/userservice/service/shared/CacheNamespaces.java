@@ -0,0 +1,146 @@
+package com.smartim.userservice.service.shared;
+
+import com.smartim.userservice.contants.UserConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Versioned namespaces of the Redis keyspaces, so a whole keyspace can be invalidated at once.
+ * A key is formed of the keyspace prefix, the cache schema version, the generation of the keyspace and the id,
+ * e.g. {@code users_name_1.4:john}. Bumping the generation of a keyspace makes every node use new keys
+ * immediately; the entries of the previous generation are never read again and expire with their TTL, without
+ * SCAN or DEL. The schema version ({@code cache.schema-version}) works the same way across deploys: code
+ * caching a changed DTO layout uses a new version and does not read entries written by older code.
+ * Generations are counters in Redis ({@code cache_generation_<prefix>}), resolved locally and kept up to date by
+ * pub/sub messages, with a periodic reload in case a message is missed. A known generation is kept while Redis is
+ * unavailable; until the generation of a keyspace has been read once, its keys cannot be formed and the Redis
+ * failure is thrown, so callers bypass the cache.
+ * Redis is authoritative for generations, but may lose its counters (flush, restart without persistence,
+ * failover). A node finding a counter lower than the generation it uses restores it, so every node keeps using
+ * the same keys and a later bump still moves past the generations in use.
+ */
+@Slf4j
+@Service
+public class CacheNamespaces {
+
+    private static final String SEPARATOR = ":";
+
+    /**
+     * Raises the counter to the given generation if it is lower, and returns the resulting counter.
+     */
+    private static final RedisScript<Long> RESTORE_GENERATION = new DefaultRedisScript<>("""
+            local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local generation = tonumber(ARGV[1])
+            if current < generation then
+                redis.call('SET', KEYS[1], ARGV[1])
+                return generation
+            end
+            return current
+            """, Long.class);
+
+    private final RedisService redisService;
+    private final String schemaVersion;
+    private final ConcurrentMap<String, Long> generations = new ConcurrentHashMap<>();
+
+    public CacheNamespaces(RedisService redisService,
+                           @Value("${cache.schema-version:" + UserConstants.CACHE_SCHEMA_VERSION + "}")
+                           String schemaVersion) {
+        this.redisService = redisService;
+        this.schemaVersion = schemaVersion;
+    }
+
+    /**
+     * Returns the prefix of the current generation of a keyspace.
+     *
+     * @param keyspace the keyspace prefix, e.g. {@code users_name_}
+     * @return the versioned prefix, to be followed by an id
+     */
+    public String prefix(String keyspace) {
+        return keyspace + schemaVersion + "." + generation(keyspace) + SEPARATOR;
+    }
+
+    /**
+     * Returns the key of an id in the current generation of a keyspace.
+     *
+     * @param keyspace the keyspace prefix, e.g. {@code users_name_}
+     * @param id the id of the entry
+     * @return the versioned key
+     */
+    public String key(String keyspace, String id) {
+        return prefix(keyspace) + id;
+    }
+
+    /**
+     * Starts a new generation of a keyspace on every node, invalidating all its entries.
+     *
+     * @param keyspace the keyspace prefix, e.g. {@code users_name_}
+     * @return the new generation
+     */
+    public long bump(String keyspace) {
+        String counter = UserConstants.CACHE_GENERATION_KEY + keyspace;
+        long generation = redisService.increment(counter);
+        Long known = generations.get(keyspace);
+        if (known != null && generation <= known) {
+            // The counter was reset: move past the generation in use, or this bump would not invalidate anything
+            generation = restore(counter, known + 1);
+        }
+        generations.put(keyspace, generation);
+        redisService.publish(UserConstants.CACHE_GENERATION_CHANNEL, keyspace);
+        log.info("Cache keyspace {} moved to generation {}", keyspace, generation);
+        return generation;
+    }
+
+    /**
+     * Handles a generation change published by a node by reloading the generation of the keyspace.
+     *
+     * @param keyspace the keyspace prefix
+     */
+    public void onGenerationChange(String keyspace) {
+        reload(keyspace);
+    }
+
+    /**
+     * Reloads the generations of the keyspaces in use, in case a pub/sub message was missed.
+     */
+    @Scheduled(fixedDelayString = "${cache.namespace.refresh-interval-ms:30000}")
+    public void refresh() {
+        generations.keySet().forEach(this::reload);
+    }
+
+    private long generation(String keyspace) {
+        Long generation = generations.get(keyspace);
+        return generation != null ? generation : generations.computeIfAbsent(keyspace, this::load);
+    }
+
+    private void reload(String keyspace) {
+        try {
+            long generation = load(keyspace);
+            Long known = generations.get(keyspace);
+            if (known != null && generation < known) {
+                // Either a reload racing a bump read the previous generation, or the counter was reset
+                generation = restore(UserConstants.CACHE_GENERATION_KEY + keyspace, known);
+            }
+            generations.put(keyspace, generation);
+        } catch (RuntimeException e) {
+            log.warn("Unable to reload the generation of cache keyspace {}: {}", keyspace, e.getMessage());
+        }
+    }
+
+    private long restore(String counter, long generation) {
+        Long restored = redisService.execute(RESTORE_GENERATION, List.of(counter), String.valueOf(generation));
+        return restored == null ? generation : restored;
+    }
+
+    private long load(String keyspace) {
+        Long generation = redisService.getCounter(UserConstants.CACHE_GENERATION_KEY + keyspace);
+        return generation == null ? 0 : generation;
+    }
+}
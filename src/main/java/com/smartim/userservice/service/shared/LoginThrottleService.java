@@ -0,0 +1,212 @@
+package com.smartim.userservice.service.shared;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartim.userservice.contants.UserConstants;
+import com.smartim.userservice.exception.LoginThrottledException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class throttling login attempts before any password is verified.
+ * Failed attempts are counted per user-name and per client IP in Redis sliding windows shared by all
+ * nodes. Once a window holds too many failures, the user-name or client is locked out, and every further
+ * failure doubles the lockout up to a maximum.
+ * Attempts whose client address is unknown, e.g. forwarded by a trusted proxy without {@code X-Forwarded-For},
+ * are only counted per user-name, so the proxy itself is never locked out.
+ * Lockouts are also remembered locally, so a locked-out client is rejected without a Redis round trip,
+ * and failures are counted locally when Redis is unavailable. Redis is called through {@link RedisService},
+ * so while its circuit breaker is open logins fall back to the local counts without waiting for Redis.
+ */
+@Slf4j
+@Service
+public class LoginThrottleService {
+
+    /**
+     * Records a failure in a sliding window and sets the lockout key once the window exceeds the limit.
+     * Returns the lockout in milliseconds, or 0 when the limit is not reached. Both keys share a hash tag, so the
+     * script runs on a single Redis Cluster slot.
+     */
+    private static final RedisScript<Long> RECORD_FAILURE = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, now - window)
+            redis.call('ZADD', KEYS[1], now, ARGV[6])
+            redis.call('PEXPIRE', KEYS[1], window)
+            local excess = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[3])
+            if excess < 0 then
+                return 0
+            end
+            local lockout = math.floor(math.min(tonumber(ARGV[4]) * 2 ^ math.min(excess, 32), tonumber(ARGV[5])))
+            redis.call('SET', KEYS[2], '1', 'PX', lockout)
+            return lockout
+            """, Long.class);
+
+    private final RedisService redisService;
+    private final long windowMs;
+    private final int maxFailuresPerUser;
+    private final int maxFailuresPerClient;
+    private final long baseLockoutMs;
+    private final long maxLockoutMs;
+
+    /**
+     * Lockout end, in epoch milliseconds, of user-names and clients known to this node.
+     */
+    private final Cache<String, Long> localLockouts;
+
+    /**
+     * Failures counted on this node, used when Redis is unavailable.
+     */
+    private final Cache<String, AtomicInteger> localFailures;
+
+    public LoginThrottleService(RedisService redisService,
+                                @Value("${security.login-throttle.window-seconds:300}") long windowSeconds,
+                                @Value("${security.login-throttle.max-failures-per-user:5}") int maxFailuresPerUser,
+                                @Value("${security.login-throttle.max-failures-per-client:20}") int maxFailuresPerClient,
+                                @Value("${security.login-throttle.base-lockout-seconds:30}") long baseLockoutSeconds,
+                                @Value("${security.login-throttle.max-lockout-seconds:3600}") long maxLockoutSeconds) {
+        this.redisService = redisService;
+        this.windowMs = windowSeconds * 1000;
+        this.maxFailuresPerUser = maxFailuresPerUser;
+        this.maxFailuresPerClient = maxFailuresPerClient;
+        this.baseLockoutMs = baseLockoutSeconds * 1000;
+        this.maxLockoutMs = maxLockoutSeconds * 1000;
+        this.localLockouts = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofSeconds(maxLockoutSeconds))
+                .build();
+        this.localFailures = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofSeconds(windowSeconds))
+                .build();
+    }
+
+    /**
+     * Rejects the attempt if the user-name or the client is locked out.
+     *
+     * @param userName the user-name the client tries to log in with
+     * @param clientIp the IP address of the client, {@code null} if unknown
+     * @throws LoginThrottledException if the user-name or the client is locked out
+     */
+    public void checkAllowed(String userName, String clientIp) {
+        List<String> keys = clientIp == null
+                ? List.of(userKey(userName))
+                : List.of(userKey(userName), clientKey(clientIp));
+        long now = System.currentTimeMillis();
+        long lockedUntil = 0;
+        for (String key : keys) {
+            lockedUntil = Math.max(lockedUntil, localLockedUntil(key));
+        }
+        if (lockedUntil <= now) {
+            try {
+                List<Long> remaining = redisService.remainingTimesToLive(
+                        keys.stream().map(LoginThrottleService::lockKey).toList());
+                if (remaining != null && remaining.size() == keys.size()) {
+                    for (int i = 0; i < keys.size(); i++) {
+                        lockedUntil = Math.max(lockedUntil, rememberLockout(keys.get(i), now, remaining.get(i)));
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Unable to read login lockouts from Redis, using local lockouts only: {}", e.getMessage());
+            }
+        }
+        if (lockedUntil > now) {
+            throw new LoginThrottledException(UserConstants.TOO_MANY_LOGIN_ATTEMPTS,
+                    Math.ceilDiv(lockedUntil - now, 1000));
+        }
+    }
+
+    /**
+     * Counts a failed attempt against the user-name and the client, locking them out once over the limit.
+     *
+     * @param userName the user-name the client tried to log in with
+     * @param clientIp the IP address of the client, {@code null} if unknown
+     */
+    public void recordFailure(String userName, String clientIp) {
+        recordFailure(userKey(userName), maxFailuresPerUser);
+        if (clientIp != null) {
+            recordFailure(clientKey(clientIp), maxFailuresPerClient);
+        }
+    }
+
+    /**
+     * Clears the failures of a user-name after a successful login. Client failures are kept.
+     *
+     * @param userName the user-name that logged in
+     */
+    public void recordSuccess(String userName) {
+        String userKey = userKey(userName);
+        localFailures.invalidate(userKey);
+        localLockouts.invalidate(userKey);
+        redisService.deleteAll(List.of(failuresKey(userKey), lockKey(userKey)));
+    }
+
+    private void recordFailure(String key, int maxFailures) {
+        long now = System.currentTimeMillis();
+        Long lockoutMs;
+        try {
+            lockoutMs = redisService.execute(RECORD_FAILURE,
+                    List.of(failuresKey(key), lockKey(key)),
+                    String.valueOf(now), String.valueOf(windowMs), String.valueOf(maxFailures),
+                    String.valueOf(baseLockoutMs), String.valueOf(maxLockoutMs), UUID.randomUUID().toString());
+        } catch (RuntimeException e) {
+            log.warn("Unable to record login failure in Redis, counting locally: {}", e.getMessage());
+            lockoutMs = localLockout(key, maxFailures);
+        }
+        if (lockoutMs != null && lockoutMs > 0) {
+            localLockouts.put(key, now + lockoutMs);
+        }
+    }
+
+    /**
+     * Counts a failure on this node only and computes the lockout the same way as the Redis script.
+     */
+    private long localLockout(String key, int maxFailures) {
+        int excess = localFailures.get(key, k -> new AtomicInteger()).incrementAndGet() - maxFailures;
+        if (excess < 0) {
+            return 0;
+        }
+        return (long) Math.min(baseLockoutMs * Math.pow(2, Math.min(excess, 32)), maxLockoutMs);
+    }
+
+    /**
+     * Stores a lockout read from Redis locally, so the next attempts are rejected without a round trip.
+     */
+    private long rememberLockout(String key, long now, Long remainingMs) {
+        long remaining = remainingMs == null ? 0 : remainingMs;
+        if (remaining <= 0) {
+            return 0;
+        }
+        localLockouts.put(key, now + remaining);
+        return now + remaining;
+    }
+
+    private long localLockedUntil(String key) {
+        Long lockedUntil = localLockouts.getIfPresent(key);
+        return lockedUntil == null ? 0 : lockedUntil;
+    }
+
+    private static String userKey(String userName) {
+        return "user_" + (userName == null ? "" : userName.toLowerCase());
+    }
+
+    private static String clientKey(String clientIp) {
+        return "ip_" + clientIp;
+    }
+
+    private static String failuresKey(String key) {
+        return UserConstants.LOGIN_FAILURES_KEY.formatted(key);
+    }
+
+    private static String lockKey(String key) {
+        return UserConstants.LOGIN_LOCK_KEY.formatted(key);
+    }
+}
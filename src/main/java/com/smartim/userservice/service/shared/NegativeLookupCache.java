@@ -0,0 +1,104 @@
+package com.smartim.userservice.service.shared;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartim.userservice.contants.UserConstants;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Service class remembering, for a short time, lookups which found nothing in the database, so repeated
+ * lookups of unknown user-names, emails and roles are answered without a query.
+ * Write paths evict the values they create; the eviction is published on a Redis pub/sub channel so every
+ * node forgets the value immediately, and new users are found right after they register.
+ * Invalidation messages have the form {@code <node id>|<key>}; a node ignores its own messages.
+ */
+@Slf4j
+@Service
+public class NegativeLookupCache {
+
+    /**
+     * The kinds of lookup cached by this class.
+     */
+    public enum Lookup {
+        USER_NAME, EMAIL, ROLE
+    }
+
+    private static final String NODE_SEPARATOR = "|";
+    private static final String KEY_SEPARATOR = ":";
+
+    private final RedisService redisService;
+    private final Cache<String, Boolean> missing;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public NegativeLookupCache(RedisService redisService,
+                               @Value("${cache.negative.ttl-seconds:30}") long timeToLiveSeconds,
+                               @Value("${cache.negative.max-size:100000}") long maxSize) {
+        this.redisService = redisService;
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(timeToLiveSeconds))
+                .build();
+    }
+
+    /**
+     * Checks if a lookup recently found nothing.
+     *
+     * @param lookup the kind of lookup.
+     * @param value the looked up value.
+     * @return true if the value is known to be missing, false otherwise.
+     */
+    public boolean isMissing(Lookup lookup, String value) {
+        return missing.getIfPresent(key(lookup, value)) != null;
+    }
+
+    /**
+     * Remembers that a lookup found nothing.
+     *
+     * @param lookup the kind of lookup.
+     * @param value the looked up value.
+     */
+    public void markMissing(Lookup lookup, String value) {
+        missing.put(key(lookup, value), Boolean.TRUE);
+    }
+
+    /**
+     * Forgets that a value is missing, on every node, after it has been created.
+     *
+     * @param lookup the kind of lookup.
+     * @param value the created value.
+     */
+    public void evict(Lookup lookup, String value) {
+        if (value == null) {
+            return;
+        }
+        String key = key(lookup, value);
+        missing.invalidate(key);
+        try {
+            redisService.publish(UserConstants.NEGATIVE_CACHE_INVALIDATION_CHANNEL, nodeId + NODE_SEPARATOR + key);
+        } catch (RuntimeException e) {
+            log.warn("Unable to publish negative cache invalidation for {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Handles an invalidation message published by another node.
+     *
+     * @param message the invalidation message.
+     */
+    public void onInvalidation(String message) {
+        int separator = message.indexOf(NODE_SEPARATOR);
+        if (separator < 0 || message.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        missing.invalidate(message.substring(separator + 1));
+    }
+
+    private static String key(Lookup lookup, String value) {
+        return lookup.name() + KEY_SEPARATOR + value;
+    }
+}
@@ -1,33 +1,116 @@
 package com.smartim.userservice.service.shared;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.smartim.userservice.service.shared.codec.RedisCodec;
+import com.smartim.userservice.service.shared.codec.RedisCodecs;
+import com.smartim.userservice.exception.CacheUnavailableException;
+import com.smartim.userservice.util.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Service;
 import com.fasterxml.jackson.core.type.TypeReference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
 /**
  * Service class for interacting with Redis to cache and retrieve objects.
- * This class provides generic methods to serialize Java objects into JSON
- * and store them in Redis, as well as deserialize JSON values from Redis
- * back into Java objects using Jackson's {@link ObjectMapper}.
+ * This class provides generic methods to serialize Java objects and store them
+ * in Redis, as well as deserialize values from Redis back into Java objects.
+ * Values are written in the format of the configured {@link RedisCodec} (JSON by default, optionally Smile and
+ * compressed when large) and read in whichever format they were written, see {@link RedisCodecs}.
  * Features:
  *   Generic get method to retrieve and deserialize cached data
  *   Generic set method to serialize and store data with a TTL
+ *   Alias keys resolving to a canonical entry
+ *   Batch get, set and delete methods costing a single round trip (MGET and pipelining)
+ *   Delete and publish methods for cache invalidation
+ * Every operation is measured per keyspace by {@link CacheMetrics}: hits, misses, serialization time,
+ * payload size and errors.
+ * Every Redis call goes through the Redis {@link CircuitBreaker}. While it is open, calls fail immediately with a
+ * {@link CacheUnavailableException} instead of waiting for the command timeout, and callers fall back to the
+ * in-process caches and the database.
+ * No command of this class touches more than one key in a script or transaction, so every key may live in a
+ * different hash slot of a Redis Cluster; multi-key operations are pipelined instead. Scripts run through
+ * {@link #execute} may touch several keys only if they share a hash tag, e.g. {@code login_{user_john}_fail} and
+ * {@code login_{user_john}_lock}.
  * Typical usage:
  * @code
  * UserDto user = redisService.get("user_email_test@example.com", UserDto.class);
  * List<UserDto> users = redisService.get("ADMIN", new TypeReference<List<UserDto>>() {});
  * redisService.set("user_email_test@example.com", user, 3600L);
+ * Map<String, UserDto> users = redisService.multiGet(List.of("users_name_a", "users_name_b"), UserDto.class);
  *
  */
+@Slf4j
 @Service
-@RequiredArgsConstructor
-public class RedisService {
+public class RedisService implements DisposableBean {
+
+    /**
+     * Maximum number of keys per command when deleting keys in bulk, so a large eviction does not
+     * block Redis with a single huge command.
+     */
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    /**
+     * Maximum number of keys kept for deletion while Redis is unavailable.
+     */
+    private static final int MAX_PENDING_DELETES = 10_000;
+
     private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final RedisTemplate<String, byte[]> binaryRedisTemplate;
+    private final RedisCodecs codecs;
+    private final CacheMetrics cacheMetrics;
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     * Keys whose deletion failed, deleted in the background after the next successful Redis call.
+     */
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean deletingPending = new AtomicBoolean();
+
+    /**
+     * Runs the deletion of pending keys, so the request which finds Redis reachable again does not wait for it.
+     */
+    private final Executor pendingDeleteExecutor;
+
+    @Autowired
+    public RedisService(RedisTemplate<String, String> redisTemplate, RedisTemplate<String, byte[]> binaryRedisTemplate,
+                        RedisCodecs codecs, CacheMetrics cacheMetrics, CircuitBreaker circuitBreaker) {
+        this(redisTemplate, binaryRedisTemplate, codecs, cacheMetrics, circuitBreaker, pendingDeleteExecutor());
+    }
+
+    RedisService(RedisTemplate<String, String> redisTemplate, RedisTemplate<String, byte[]> binaryRedisTemplate,
+                 RedisCodecs codecs, CacheMetrics cacheMetrics, CircuitBreaker circuitBreaker,
+                 Executor pendingDeleteExecutor) {
+        this.redisTemplate = redisTemplate;
+        this.binaryRedisTemplate = binaryRedisTemplate;
+        this.codecs = codecs;
+        this.cacheMetrics = cacheMetrics;
+        this.circuitBreaker = circuitBreaker;
+        this.pendingDeleteExecutor = pendingDeleteExecutor;
+    }
 
     /**
      * Retrieves a cached object from Redis and deserializes it into the specified class.
@@ -39,12 +122,7 @@ public class RedisService {
      * @throws JsonProcessingException if deserialization fails.
      */
     public <T> T get(String key, Class<T> entityClass) throws JsonProcessingException {
-        Object objString = redisTemplate.opsForValue().get(key);
-        if (objString!=null){
-            return objectMapper.readValue(objString.toString(), entityClass);
-        }else{
-            return null;
-        }
+        return get(key, TypeFactory.defaultInstance().constructType(entityClass));
     }
 
     /**
@@ -60,12 +138,7 @@ public class RedisService {
      * @throws JsonProcessingException if deserialization fails.
      */
     public <T> T get(String key, TypeReference<T> typeReference) throws JsonProcessingException {
-        Object objString = redisTemplate.opsForValue().get(key);
-        if (objString!=null){
-            return objectMapper.readValue(objString.toString(), typeReference);
-        }else{
-            return null;
-        }
+        return get(key, TypeFactory.defaultInstance().constructType(typeReference));
     }
 
     /**
@@ -77,7 +150,432 @@ public class RedisService {
      * @throws JsonProcessingException if serialization fails.
      */
     public void set(String key, Object obj, Long timeToLive) throws JsonProcessingException {
-        String jsonValue =  objectMapper.writeValueAsString(obj);
-        redisTemplate.opsForValue().set(key, jsonValue, timeToLive, TimeUnit.SECONDS);
+        byte[] value = encode(key, obj);
+        try {
+            run(() -> binaryRedisTemplate.opsForValue().set(key, value, timeToLive, TimeUnit.SECONDS));
+        } catch (RuntimeException e) {
+            cacheMetrics.error(key, CacheMetrics.WRITE);
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves an alias key to the canonical entry it points to and deserializes it into the specified class.
+     * The alias and the entry may live on different cluster nodes, so they are read one after the other.
+     *
+     * @param aliasKey the Redis key holding the id of the canonical entry.
+     * @param keyPrefix the prefix which, followed by the id, forms the key of the canonical entry.
+     * @param entityClass the class to which the JSON should be deserialized.
+     * @param <T> the type of the object to return.
+     * @return deserialized canonical entry, or {@code null} if the alias or the entry is not found.
+     * @throws JsonProcessingException if deserialization fails.
+     */
+    public <T> T getViaAlias(String aliasKey, String keyPrefix, Class<T> entityClass) throws JsonProcessingException {
+        return getViaAlias(aliasKey, keyPrefix, TypeFactory.defaultInstance().constructType(entityClass));
+    }
+
+    /**
+     * Resolves an alias key to the canonical entry it points to and deserializes it into the specified generic
+     * type using a {@link TypeReference}.
+     * The alias and the entry may live on different cluster nodes, so they are read one after the other.
+     *
+     * @param aliasKey the Redis key holding the id of the canonical entry.
+     * @param keyPrefix the prefix which, followed by the id, forms the key of the canonical entry.
+     * @param typeReference the type reference indicating the desired return type.
+     * @param <T> the type of the object to return.
+     * @return deserialized canonical entry, or {@code null} if the alias or the entry is not found.
+     * @throws JsonProcessingException if deserialization fails.
+     */
+    public <T> T getViaAlias(String aliasKey, String keyPrefix, TypeReference<T> typeReference)
+            throws JsonProcessingException {
+        return getViaAlias(aliasKey, keyPrefix, TypeFactory.defaultInstance().constructType(typeReference));
+    }
+
+    /**
+     * Serializes the given object into JSON and stores it under the key prefix followed by the id, together with
+     * alias keys holding the id, all with the same time-to-live (TTL) and in a single pipelined round trip.
+     *
+     * @param keyPrefix the prefix which, followed by the id, forms the key of the canonical entry.
+     * @param id the id of the canonical entry.
+     * @param obj the object to cache.
+     * @param aliasKeys the alias keys resolving to the canonical entry.
+     * @param timeToLive TTL for the entry and its aliases in seconds.
+     * @throws JsonProcessingException if serialization fails.
+     */
+    public void setWithAliases(String keyPrefix, String id, Object obj, Collection<String> aliasKeys,
+                               Long timeToLive) throws JsonProcessingException {
+        multiSetWithAliases(keyPrefix, Map.of(id, obj), Map.of(id, aliasKeys), timeToLive);
+    }
+
+    /**
+     * Serializes the given objects and stores each under the key prefix followed by its id, together with its
+     * alias keys holding the id, all with the same time-to-live (TTL) and in a single pipelined round trip.
+     *
+     * @param keyPrefix the prefix which, followed by an id, forms the key of a canonical entry.
+     * @param values the objects to cache, by id.
+     * @param aliasKeys the alias keys resolving to each canonical entry, by id.
+     * @param timeToLive TTL for the entries and their aliases in seconds.
+     * @throws JsonProcessingException if serialization fails; nothing is written in that case.
+     */
+    public void multiSetWithAliases(String keyPrefix, Map<String, ?> values,
+                                    Map<String, ? extends Collection<String>> aliasKeys, Long timeToLive)
+            throws JsonProcessingException {
+        if (values.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        Map<byte[], byte[]> encoded = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            String key = keyPrefix + entry.getKey();
+            keys.add(key);
+            encoded.put(rawKey(key), encode(key, entry.getValue()));
+            byte[] rawId = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            Collection<String> entryAliasKeys = aliasKeys.get(entry.getKey());
+            if (entryAliasKeys != null) {
+                for (String aliasKey : entryAliasKeys) {
+                    keys.add(aliasKey);
+                    encoded.put(rawKey(aliasKey), rawId);
+                }
+            }
+        }
+        Expiration expiration = Expiration.seconds(timeToLive);
+        try {
+            run(() -> binaryRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                encoded.forEach((key, value) -> connection.stringCommands().set(key, value, expiration,
+                        RedisStringCommands.SetOption.upsert()));
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            cacheMetrics.error(keys, CacheMetrics.WRITE);
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves several cached objects from Redis with a single MGET and deserializes them into the specified class.
+     *
+     * @param keys the Redis keys where the objects are stored.
+     * @param entityClass the class to which the values should be deserialized.
+     * @param <T> the type of the objects to return.
+     * @return the deserialized objects by key, in the order of the keys; keys not found are left out.
+     * @throws JsonProcessingException if deserialization fails.
+     */
+    public <T> Map<String, T> multiGet(Collection<String> keys, Class<T> entityClass) throws JsonProcessingException {
+        return multiGet(keys, TypeFactory.defaultInstance().constructType(entityClass));
+    }
+
+    /**
+     * Retrieves several cached objects from Redis with a single MGET and deserializes them into the specified
+     * generic type using a {@link TypeReference}.
+     *
+     * @param keys the Redis keys where the objects are stored.
+     * @param typeReference the type reference indicating the desired type of each value.
+     * @param <T> the type of the objects to return.
+     * @return the deserialized objects by key, in the order of the keys; keys not found are left out.
+     * @throws JsonProcessingException if deserialization fails.
+     */
+    public <T> Map<String, T> multiGet(Collection<String> keys, TypeReference<T> typeReference)
+            throws JsonProcessingException {
+        return multiGet(keys, TypeFactory.defaultInstance().constructType(typeReference));
+    }
+
+    /**
+     * Serializes the given objects and stores them in Redis with the same time-to-live (TTL), in a single
+     * pipelined round trip.
+     *
+     * @param values the objects to cache, by Redis key.
+     * @param timeToLive TTL for every object in seconds.
+     * @throws JsonProcessingException if serialization fails; nothing is written in that case.
+     */
+    public void multiSet(Map<String, ?> values, Long timeToLive) throws JsonProcessingException {
+        multiSet(values, key -> timeToLive);
+    }
+
+    /**
+     * Serializes the given objects and stores them in Redis, each with its own time-to-live (TTL), in a single
+     * pipelined round trip.
+     *
+     * @param values the objects to cache, by Redis key.
+     * @param timeToLive gives the TTL in seconds of the object stored under a key.
+     * @throws JsonProcessingException if serialization fails; nothing is written in that case.
+     */
+    public void multiSet(Map<String, ?> values, ToLongFunction<String> timeToLive) throws JsonProcessingException {
+        if (values.isEmpty()) {
+            return;
+        }
+        Map<byte[], byte[]> encoded = new LinkedHashMap<>();
+        Map<byte[], Long> timeToLives = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> entry : values.entrySet()) {
+            byte[] key = rawKey(entry.getKey());
+            encoded.put(key, encode(entry.getKey(), entry.getValue()));
+            timeToLives.put(key, timeToLive.applyAsLong(entry.getKey()));
+        }
+        try {
+            run(() -> binaryRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                encoded.forEach((key, value) -> connection.stringCommands().set(key, value,
+                        Expiration.seconds(timeToLives.get(key)), RedisStringCommands.SetOption.upsert()));
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            cacheMetrics.error(values.keySet(), CacheMetrics.WRITE);
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes the given keys from Redis in a single pipelined round trip. Keys are unlinked, so their memory is
+     * reclaimed in the background, in batches of {@value #DELETE_BATCH_SIZE}.
+     * Keys which cannot be deleted because Redis fails or the circuit breaker is open are kept, up to
+     * {@value #MAX_PENDING_DELETES}, and deleted in the background after the next successful Redis call, so an outage does not
+     * leave stale entries behind once Redis is back.
+     *
+     * @param keys the Redis keys to delete.
+     */
+    public void deleteAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            run(() -> unlink(keys));
+        } catch (RuntimeException e) {
+            cacheMetrics.error(keys, CacheMetrics.DELETE);
+            deferDelete(keys);
+        }
+    }
+
+    /**
+     * Atomically increments a counter.
+     *
+     * @param key the Redis key of the counter.
+     * @return the value of the counter after the increment.
+     */
+    public long increment(String key) {
+        Long value = call(() -> redisTemplate.opsForValue().increment(key));
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * Reads a counter.
+     *
+     * @param key the Redis key of the counter.
+     * @return the value of the counter, or {@code null} if it was never incremented.
+     */
+    public Long getCounter(String key) {
+        String value = call(() -> redisTemplate.opsForValue().get(key));
+        return value == null ? null : Long.valueOf(value);
+    }
+
+    /**
+     * Reads the remaining time to live of several keys with one PTTL per key, pipelined in a single round trip.
+     *
+     * @param keys the keys to read.
+     * @return the remaining time to live in milliseconds of each key, in order: -1 for a key without expiry and -2
+     *         for a missing key.
+     */
+    public List<Long> remainingTimesToLive(List<String> keys) {
+        List<Object> results = call(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            keys.forEach(key -> connection.keyCommands().pTtl(rawKey(key)));
+            return null;
+        }));
+        return results.stream().map(result -> result instanceof Number number ? number.longValue() : -2L).toList();
+    }
+
+    /**
+     * Runs a Lua script on string keys and values through the circuit breaker. Every key the script touches must
+     * be passed in {@code keys}, and all of them must share a hash tag so they live in one Redis Cluster slot.
+     *
+     * @param script the script to run.
+     * @param keys the keys the script reads or writes.
+     * @param args the arguments of the script.
+     * @param <T> the type of the script result.
+     * @return the result of the script.
+     * @throws CacheUnavailableException if the circuit breaker is open.
+     */
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        return call(() -> redisTemplate.execute(script, keys, args));
+    }
+
+    /**
+     * Publishes a message on a Redis pub/sub channel.
+     *
+     * @param channel the channel to publish on.
+     * @param message the message to publish.
+     */
+    public void publish(String channel, String message) {
+        run(() -> redisTemplate.convertAndSend(channel, message));
+    }
+
+    private <T> T get(String key, JavaType type) throws JsonProcessingException {
+        byte[] value;
+        try {
+            value = call(() -> binaryRedisTemplate.opsForValue().get(key));
+        } catch (RuntimeException e) {
+            cacheMetrics.error(key, CacheMetrics.READ);
+            throw e;
+        }
+        return decodeLookup(key, value, type);
+    }
+
+    private <T> T getViaAlias(String aliasKey, String keyPrefix, JavaType type) throws JsonProcessingException {
+        byte[] value;
+        try {
+            byte[] id = call(() -> binaryRedisTemplate.opsForValue().get(aliasKey));
+            if (id == null) {
+                return decodeLookup(aliasKey, null, type);
+            }
+            String key = keyPrefix + new String(id, StandardCharsets.UTF_8);
+            value = call(() -> binaryRedisTemplate.opsForValue().get(key));
+        } catch (RuntimeException e) {
+            cacheMetrics.error(aliasKey, CacheMetrics.READ);
+            throw e;
+        }
+        return decodeLookup(aliasKey, value, type);
+    }
+
+    private <T> Map<String, T> multiGet(Collection<String> keys, JavaType type) throws JsonProcessingException {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        List<String> orderedKeys = List.copyOf(keys);
+        List<byte[]> values;
+        try {
+            values = call(() -> binaryRedisTemplate.opsForValue().multiGet(orderedKeys));
+        } catch (RuntimeException e) {
+            cacheMetrics.error(orderedKeys, CacheMetrics.READ);
+            throw e;
+        }
+        Map<String, T> result = new LinkedHashMap<>();
+        for (int i = 0; i < orderedKeys.size(); i++) {
+            T value = decodeLookup(orderedKeys.get(i), values == null ? null : values.get(i), type);
+            if (value != null) {
+                result.put(orderedKeys.get(i), value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs a Redis command through the circuit breaker, reporting its outcome and duration.
+     *
+     * @throws CacheUnavailableException if the circuit breaker is open.
+     */
+    private <T> T call(Supplier<T> command) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new CacheUnavailableException("Redis circuit breaker is open");
+        }
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = command.get();
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+        circuitBreaker.onSuccess(System.nanoTime() - start);
+        deletePending();
+        return result;
+    }
+
+    private void run(Runnable command) {
+        call(() -> {
+            command.run();
+            return null;
+        });
+    }
+
+    private void unlink(Collection<String> keys) {
+        List<byte[]> rawKeys = keys.stream().map(RedisService::rawKey).toList();
+        binaryRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int from = 0; from < rawKeys.size(); from += DELETE_BATCH_SIZE) {
+                List<byte[]> batch = rawKeys.subList(from, Math.min(from + DELETE_BATCH_SIZE, rawKeys.size()));
+                connection.keyCommands().unlink(batch.toArray(byte[][]::new));
+            }
+            return null;
+        });
+    }
+
+    private void deferDelete(Collection<String> keys) {
+        if (pendingDeletes.size() + keys.size() > MAX_PENDING_DELETES) {
+            log.warn("Unable to delete {} keys and too many deletes pending, they expire with their TTL", keys.size());
+            return;
+        }
+        pendingDeletes.addAll(keys);
+        log.warn("Unable to delete {} keys, deleting them once Redis is reachable", keys.size());
+    }
+
+    @Override
+    public void destroy() {
+        if (pendingDeleteExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Deletes the keys left over by failed deletes in the background, one deletion at a time.
+     */
+    private void deletePending() {
+        if (pendingDeletes.isEmpty() || !deletingPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            pendingDeleteExecutor.execute(() -> {
+                try {
+                    List<String> keys = List.copyOf(pendingDeletes);
+                    run(() -> unlink(keys));
+                    keys.forEach(pendingDeletes::remove);
+                    log.info("Deleted {} keys left over by failed deletes", keys.size());
+                } catch (RuntimeException e) {
+                    log.warn("Unable to delete keys left over by failed deletes: {}", e.getMessage());
+                } finally {
+                    deletingPending.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            deletingPending.set(false);
+        }
+    }
+
+    /**
+     * Counts the lookup of a key as a hit or a miss and decodes the value found, if any.
+     */
+    private <T> T decodeLookup(String key, byte[] value, JavaType type) throws JsonProcessingException {
+        if (value == null) {
+            cacheMetrics.miss(key);
+            return null;
+        }
+        cacheMetrics.hit(key, CacheMetrics.REDIS);
+        long start = System.nanoTime();
+        try {
+            T decoded = codecs.decode(value, type);
+            cacheMetrics.recordDecode(key, System.nanoTime() - start, value.length);
+            return decoded;
+        } catch (JsonProcessingException e) {
+            cacheMetrics.error(key, CacheMetrics.DECODE);
+            throw e;
+        }
+    }
+
+    private byte[] encode(String key, Object obj) throws JsonProcessingException {
+        long start = System.nanoTime();
+        try {
+            byte[] value = codecs.encode(obj);
+            cacheMetrics.recordEncode(key, System.nanoTime() - start, value.length);
+            return value;
+        } catch (JsonProcessingException e) {
+            cacheMetrics.error(key, CacheMetrics.ENCODE);
+            throw e;
+        }
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ExecutorService pendingDeleteExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-pending-deletes");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 }
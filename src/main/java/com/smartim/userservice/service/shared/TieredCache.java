@@ -0,0 +1,216 @@
+package com.smartim.userservice.service.shared;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartim.userservice.contants.UserConstants;
+import com.smartim.userservice.util.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Spring {@link org.springframework.cache.Cache} storing values in two tiers: a small in-process cache with a
+ * short TTL in front of Redis, accessed through {@link RedisService}. Entries are stored under the keyspace prefix
+ * and the cache key, in the current generation of the keyspace (see {@link CacheNamespaces}), so clearing the
+ * cache is a single generation bump instead of a scan of Redis.
+ * Explicit puts and evictions are published on a Redis pub/sub channel, so the other nodes drop their local
+ * copies. On a miss, concurrent loads of the same key on a node run the loader once.
+ * The cache is an optimization only: Redis failures, including an open circuit breaker, are logged and
+ * reported as a miss, and a failed write drops the Redis entry so a stale value is never served.
+ * Null values are not cached.
+ */
+@Slf4j
+public class TieredCache extends AbstractValueAdaptingCache {
+
+    private static final String NODE_SEPARATOR = "|";
+
+    private final String name;
+    private final String keyspace;
+    private final TypeReference<?> valueType;
+    private final long timeToLiveSeconds;
+    private final RedisService redisService;
+    private final CacheNamespaces namespaces;
+    private final CacheMetrics cacheMetrics;
+
+    /**
+     * Local copies of the entries, by versioned Redis key.
+     */
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+
+    private final SingleFlight<String, Object> loads = new SingleFlight<>();
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Creates a cache.
+     *
+     * @param name the name of the cache, as used in the caching annotations
+     * @param keyspace the keyspace prefix of the Redis keys, e.g. {@code users_role_}
+     * @param valueType the type the cached values are decoded to
+     * @param timeToLiveSeconds TTL of the Redis entries, in seconds
+     * @param localMaxSize maximum number of entries kept in the in-process tier
+     * @param localTimeToLiveSeconds TTL of the entries of the in-process tier, in seconds
+     * @param redisService the Redis access
+     * @param namespaces the keyspace generations
+     * @param cacheMetrics the cache metrics
+     */
+    public TieredCache(String name, String keyspace, TypeReference<?> valueType, long timeToLiveSeconds,
+                       long localMaxSize, long localTimeToLiveSeconds, RedisService redisService,
+                       CacheNamespaces namespaces, CacheMetrics cacheMetrics) {
+        super(false);
+        this.name = name;
+        this.keyspace = keyspace;
+        this.valueType = valueType;
+        this.timeToLiveSeconds = timeToLiveSeconds;
+        this.redisService = redisService;
+        this.namespaces = namespaces;
+        this.cacheMetrics = cacheMetrics;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTimeToLiveSeconds))
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        try {
+            String redisKey = redisKey(key);
+            Object value = local.getIfPresent(redisKey);
+            if (value != null) {
+                cacheMetrics.hit(redisKey, CacheMetrics.LOCAL);
+                return value;
+            }
+            value = redisService.get(redisKey, valueType);
+            if (value != null) {
+                local.put(redisKey, value);
+            }
+            return value;
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.debug("Unable to read {} from cache {}: {}", key, name, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        return (T) loads.execute(String.valueOf(key), () -> {
+            long start = System.nanoTime();
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            cacheMetrics.recordLoad(keyspace, System.nanoTime() - start);
+            if (value != null) {
+                store(key, value);
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String redisKey = store(key, toStoreValue(value));
+        if (redisKey != null) {
+            publishInvalidation(redisKey);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        String redisKey;
+        try {
+            redisKey = redisKey(key);
+        } catch (DataAccessException e) {
+            log.warn("Unable to evict {} from cache {}, its key is unknown while Redis is unavailable: {}",
+                    key, name, e.getMessage());
+            return;
+        }
+        redisService.deleteAll(List.of(redisKey));
+        local.invalidate(redisKey);
+        publishInvalidation(redisKey);
+    }
+
+    /**
+     * Clears the cache on every node by starting a new generation of its keyspace.
+     */
+    @Override
+    public void clear() {
+        try {
+            namespaces.bump(keyspace);
+        } catch (DataAccessException e) {
+            log.warn("Unable to clear cache {}, Redis entries expire with their TTL: {}", name, e.getMessage());
+        }
+        local.invalidateAll();
+    }
+
+    /**
+     * Handles an invalidation message published by another node by dropping the local copy of its key.
+     * Messages have the form {@code <node id>|<key>}; a cache ignores its own messages.
+     *
+     * @param message the invalidation message
+     */
+    public void onInvalidation(String message) {
+        int separator = message.indexOf(NODE_SEPARATOR);
+        if (separator < 0 || message.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        local.invalidate(message.substring(separator + 1));
+    }
+
+    /**
+     * Stores a value in both tiers.
+     *
+     * @return the Redis key of the value, or {@code null} if it cannot be formed while Redis is unavailable
+     */
+    private String store(Object key, Object value) {
+        String redisKey;
+        try {
+            redisKey = redisKey(key);
+        } catch (DataAccessException e) {
+            log.debug("Unable to cache {} in cache {}: {}", key, name, e.getMessage());
+            return null;
+        }
+        try {
+            redisService.set(redisKey, value, timeToLiveSeconds);
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Unable to cache {} in Redis, dropping its entry: {}", redisKey, e.getMessage());
+            redisService.deleteAll(List.of(redisKey));
+        }
+        local.put(redisKey, value);
+        return redisKey;
+    }
+
+    private String redisKey(Object key) {
+        return namespaces.key(keyspace, String.valueOf(key));
+    }
+
+    private void publishInvalidation(String redisKey) {
+        try {
+            redisService.publish(UserConstants.CACHE_INVALIDATION_CHANNEL, nodeId + NODE_SEPARATOR + redisKey);
+        } catch (RuntimeException e) {
+            log.warn("Unable to publish invalidation of {}: {}", redisKey, e.getMessage());
+        }
+    }
+}
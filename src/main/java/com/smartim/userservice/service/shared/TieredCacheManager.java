@@ -0,0 +1,47 @@
+package com.smartim.userservice.service.shared;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link org.springframework.cache.CacheManager} of the caches declared in
+ * {@link com.smartim.userservice.config.CacheConfig}. The set of caches is fixed; an unknown cache name in a
+ * caching annotation fails the call.
+ * The manager is transaction-aware: puts and evictions made inside a transaction are applied after it commits,
+ * so a concurrent reader cannot cache the old value between the eviction and the commit.
+ */
+public class TieredCacheManager extends AbstractTransactionSupportingCacheManager {
+
+    private final List<Cache> caches;
+
+    /**
+     * Creates a manager.
+     *
+     * @param caches the caches it manages
+     */
+    public TieredCacheManager(Collection<? extends Cache> caches) {
+        this.caches = List.copyOf(caches);
+        setTransactionAware(true);
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return caches;
+    }
+
+    /**
+     * Handles an invalidation message published by another node by dropping the local copies of its key.
+     *
+     * @param message the invalidation message
+     */
+    public void onInvalidation(String message) {
+        for (Cache cache : caches) {
+            if (cache instanceof TieredCache tieredCache) {
+                tieredCache.onInvalidation(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.smartim.userservice.service.shared;
+
+import com.smartim.userservice.contants.UserConstants;
+import com.smartim.userservice.event.UserChangedEvent;
+import com.smartim.userservice.security.UserDetailsCache;
+import com.smartim.userservice.security.UserStatusCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the user caches consistent with the database by reacting to {@link UserChangedEvent}s.
+ * Runs after the transaction publishing the event commits, so a concurrent reader cannot reload and cache the
+ * old value between the eviction and the commit. Events published outside a transaction are handled immediately.
+ * The local authentication caches of the other nodes are dropped through the {@code user_changed} channel.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserCacheMaintenance {
+
+    private final UserCacheService userCacheService;
+    private final UserStatusCache userStatusCache;
+    private final UserDetailsCache userDetailsCache;
+    private final RedisService redisService;
+
+    /**
+     * Removes every cache entry of the changed user: its profile and alias keys on every node,
+     * and its cached status and security details on every node.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        userCacheService.evict(event.userName(), event.emails(), event.mobileNumbers());
+        evictAuthentication(event.userName());
+        try {
+            redisService.publish(UserConstants.USER_CHANGED_CHANNEL, event.userName());
+        } catch (RuntimeException e) {
+            log.warn("Unable to publish change of user {}, other nodes keep it until its TTL: {}",
+                    event.userName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Handles a user change published by another node by dropping the local authentication caches of the user.
+     *
+     * @param userName the user-name of the changed user
+     */
+    public void onRemoteUserChanged(String userName) {
+        evictAuthentication(userName);
+    }
+
+    private void evictAuthentication(String userName) {
+        userStatusCache.evict(userName);
+        userDetailsCache.removeUserFromCache(userName);
+    }
+}
@@ -0,0 +1,467 @@
+package com.smartim.userservice.service.shared;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartim.userservice.contants.UserConstants;
+import com.smartim.userservice.dto.UserDto;
+import com.smartim.userservice.util.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Service class caching {@link UserDto} profiles in two tiers.
+ * Each user is stored once, as a canonical entry under {@code users_name_<userName>}. Small alias keys
+ * ({@code user_email_<email>}, {@code user_mobile_<mobileNumber>}) hold only the user-name, and are resolved
+ * with two single-key reads: a GET of the alias, then a GET of the canonical entry it names. An alias and its
+ * entry hash to different Redis Cluster slots, and a script or transaction may only touch keys of one slot, so
+ * they cannot be read in one command. Every key carries the current generation of its keyspace, see
+ * {@link CacheNamespaces}.
+ * Reads are served from a small in-process cache with a short TTL and fall back to Redis through
+ * {@link RedisService}. Every change is published on a Redis pub/sub channel, so the other nodes
+ * drop their local copies and read the new value from Redis.
+ * Invalidation messages have the form {@code <node id>|<key>,<key>...}; a node ignores its own messages.
+ * On a miss, concurrent lookups of the same user on a node share a single load from the database.
+ * Entries are wrapped in a {@link CacheEnvelope} carrying a soft expiry shorter than the Redis TTL. Past the
+ * soft expiry, or slightly before it for hot entries, the cached value is still served and a refresh is
+ * scheduled in the background, so readers rarely wait for the database.
+ * Changes made through the user service are evicted after commit by {@link UserCacheMaintenance}.
+ * When Redis fails or its circuit breaker is open, lookups fall back to the in-process cache and then to the
+ * loader, and loaded users are cached locally only; deletes are retried by {@link RedisService} once Redis is back.
+ */
+@Slf4j
+@Service
+public class UserCacheService implements DisposableBean {
+
+    private static final String NODE_SEPARATOR = "|";
+    private static final String KEY_SEPARATOR = ",";
+    private static final TypeReference<CacheEnvelope<UserDto>> ENVELOPE_TYPE = new TypeReference<>() {};
+
+    private final RedisService redisService;
+    private final CacheNamespaces namespaces;
+    private final CacheMetrics cacheMetrics;
+    private final long timeToLiveSeconds;
+    private final long softTimeToLiveMs;
+    private final double earlyRefreshBeta;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+
+    /**
+     * Local copies of canonical entries, by canonical key.
+     */
+    private final Cache<String, CacheEnvelope<UserDto>> localUsers;
+
+    /**
+     * Local copies of alias keys, mapping the alias key to the user-name.
+     */
+    private final Cache<String, String> localAliases;
+
+    /**
+     * Canonical keys with a background refresh scheduled or running.
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final SingleFlight<String, UserDto> loads = new SingleFlight<>();
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Autowired
+    public UserCacheService(RedisService redisService, CacheNamespaces namespaces, CacheMetrics cacheMetrics,
+                            @Value("${cache.user.ttl-seconds:300}") long timeToLiveSeconds,
+                            @Value("${cache.user.soft-ttl-seconds:240}") long softTimeToLiveSeconds,
+                            @Value("${cache.user.early-refresh-beta:1.0}") double earlyRefreshBeta,
+                            @Value("${cache.user.local.max-size:10000}") long localMaxSize,
+                            @Value("${cache.user.local.ttl-seconds:10}") long localTimeToLiveSeconds,
+                            @Value("${cache.user.refresh.threads:2}") int refreshThreads) {
+        this(redisService, namespaces, cacheMetrics, timeToLiveSeconds, softTimeToLiveSeconds, earlyRefreshBeta,
+                localMaxSize, localTimeToLiveSeconds, refreshExecutor(refreshThreads), Clock.systemUTC());
+    }
+
+    UserCacheService(RedisService redisService, CacheNamespaces namespaces, CacheMetrics cacheMetrics,
+                     long timeToLiveSeconds, long softTimeToLiveSeconds,
+                     double earlyRefreshBeta, long localMaxSize, long localTimeToLiveSeconds,
+                     Executor refreshExecutor, Clock clock) {
+        this.redisService = redisService;
+        this.namespaces = namespaces;
+        this.cacheMetrics = cacheMetrics;
+        this.timeToLiveSeconds = timeToLiveSeconds;
+        this.softTimeToLiveMs = TimeUnit.SECONDS.toMillis(softTimeToLiveSeconds);
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+        this.localUsers = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTimeToLiveSeconds))
+                .build();
+        this.localAliases = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTimeToLiveSeconds))
+                .build();
+    }
+
+    /**
+     * Retrieves a cached user by user-name.
+     *
+     * @param userName the user-name of the user.
+     * @return the cached user, or {@code null} if not cached.
+     * @throws JsonProcessingException if deserialization fails.
+     */
+    public UserDto getByUserName(String userName) throws JsonProcessingException {
+        return valueOf(getEnvelope(userName));
+    }
+
+    /**
+     * Retrieves a cached user by email.
+     *
+     * @param email the email of the user.
+     * @return the cached user, or {@code null} if not cached.
+     * @throws JsonProcessingException if deserialization fails.
+     */
+    public UserDto getByEmail(String email) throws JsonProcessingException {
+        return valueOf(getEnvelopeByAlias(UserConstants.USER_EMAIL_KEY, email, UserDto::getEmail));
+    }
+
+    /**
+     * Retrieves a user by user-name, loading and caching it on a miss. Concurrent misses for the same
+     * user-name run the loader once. A stale or soon to be stale user is returned and refreshed in the background.
+     *
+     * @param userName the user-name of the user.
+     * @param loader loads the user from the database.
+     * @return the cached or loaded user.
+     * @throws JsonProcessingException if deserialization or serialization fails.
+     */
+    public UserDto getByUserName(String userName, Supplier<UserDto> loader) throws JsonProcessingException {
+        CacheEnvelope<UserDto> envelope = getEnvelope(userName);
+        if (envelope == null) {
+            return load(UserConstants.USER_NAME_KEY, userName, loader);
+        }
+        refreshIfDue(envelope, loader);
+        return envelope.value();
+    }
+
+    /**
+     * Retrieves a user by email, loading and caching it on a miss. Concurrent misses for the same
+     * email run the loader once. A stale or soon to be stale user is returned and refreshed in the background.
+     *
+     * @param email the email of the user.
+     * @param loader loads the user from the database.
+     * @return the cached or loaded user.
+     * @throws JsonProcessingException if deserialization or serialization fails.
+     */
+    public UserDto getByEmail(String email, Supplier<UserDto> loader) throws JsonProcessingException {
+        CacheEnvelope<UserDto> envelope =
+                getEnvelopeByAlias(UserConstants.USER_EMAIL_KEY, email, UserDto::getEmail);
+        if (envelope == null) {
+            return load(UserConstants.USER_EMAIL_KEY, email, loader);
+        }
+        refreshIfDue(envelope, loader);
+        return envelope.value();
+    }
+
+    /**
+     * Caches a user and its alias keys without notifying the other nodes, for values just loaded
+     * from the database.
+     *
+     * @param userDto the user to cache.
+     * @throws JsonProcessingException if serialization fails.
+     */
+    public void put(UserDto userDto) throws JsonProcessingException {
+        put(userDto, 0);
+    }
+
+    /**
+     * Caches several users and their alias keys in a single Redis round trip, without notifying the other nodes,
+     * for values just loaded from the database in bulk. Unlike {@link #put(UserDto)}, a Redis failure is not
+     * absorbed, so a bulk load can stop instead of caching every user locally only.
+     *
+     * @param users the users to cache.
+     * @throws JsonProcessingException if serialization fails.
+     * @throws DataAccessException if Redis is unavailable; nothing is cached then.
+     */
+    public void putAll(Collection<UserDto> users) throws JsonProcessingException {
+        long softExpiresAt = clock.millis() + softTimeToLiveMs;
+        Map<String, CacheEnvelope<UserDto>> envelopes = new LinkedHashMap<>();
+        Map<String, List<String>> aliasKeys = new HashMap<>();
+        for (UserDto userDto : users) {
+            envelopes.put(userDto.getUserName(), new CacheEnvelope<>(userDto, softExpiresAt, 0));
+            aliasKeys.put(userDto.getUserName(), aliasKeys(userDto));
+        }
+        redisService.multiSetWithAliases(namespaces.prefix(UserConstants.USER_NAME_KEY), envelopes, aliasKeys,
+                timeToLiveSeconds);
+        envelopes.values().forEach(this::cacheLocally);
+    }
+
+    /**
+     * Removes a user and its alias keys from both tiers on every node, deleting all the keys from Redis in a
+     * single round trip. The aliases of the local copy of the user, if any, are removed too.
+     *
+     * @param userName the user-name of the user.
+     * @param emails the emails the user may be cached under.
+     * @param mobileNumbers the mobile numbers the user may be cached under.
+     */
+    public void evict(String userName, Collection<String> emails, Collection<String> mobileNumbers) {
+        Set<String> keys = new LinkedHashSet<>();
+        try {
+            keys.add(userKey(userName));
+            emails.forEach(email -> keys.add(emailKey(email)));
+            mobileNumbers.forEach(mobileNumber -> keys.add(mobileKey(mobileNumber)));
+        } catch (DataAccessException e) {
+            log.warn("Unable to evict cached user {}, its keys are unknown while Redis is unavailable: {}",
+                    userName, e.getMessage());
+            return;
+        }
+        CacheEnvelope<UserDto> local = localUsers.getIfPresent(userKey(userName));
+        if (local != null) {
+            keys.addAll(aliasKeys(local.value()));
+        }
+        List<String> keyList = List.copyOf(keys);
+        redisService.deleteAll(keyList);
+        invalidateLocally(keyList);
+        publishInvalidation(keyList);
+    }
+
+    /**
+     * Invalidates every cached user on every node at once, by starting new generations of the user keyspaces.
+     */
+    public void invalidateAll() {
+        namespaces.bump(UserConstants.USER_NAME_KEY);
+        namespaces.bump(UserConstants.USER_EMAIL_KEY);
+        namespaces.bump(UserConstants.USER_MOBILE_KEY);
+        localUsers.invalidateAll();
+        localAliases.invalidateAll();
+    }
+
+    /**
+     * Handles an invalidation message published by another node by dropping the local copies of its keys.
+     *
+     * @param message the invalidation message.
+     */
+    public void onInvalidation(String message) {
+        int separator = message.indexOf(NODE_SEPARATOR);
+        if (separator < 0 || message.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        invalidateLocally(Arrays.asList(message.substring(separator + 1).split(KEY_SEPARATOR)));
+    }
+
+    @Override
+    public void destroy() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private void put(UserDto userDto, long delta) throws JsonProcessingException {
+        CacheEnvelope<UserDto> envelope = new CacheEnvelope<>(userDto, clock.millis() + softTimeToLiveMs, delta);
+        try {
+            redisService.setWithAliases(namespaces.prefix(UserConstants.USER_NAME_KEY), userDto.getUserName(),
+                    envelope, aliasKeys(userDto), timeToLiveSeconds);
+        } catch (DataAccessException e) {
+            log.debug("Unable to cache user {} in Redis, caching it locally only: {}",
+                    userDto.getUserName(), e.getMessage());
+        }
+        cacheLocally(envelope);
+    }
+
+    /**
+     * Loads the user with the given id in a keyspace, bypassing the cache while the key cannot be formed because
+     * the generation of the keyspace is unknown and Redis is unavailable.
+     */
+    private UserDto load(String keyspace, String id, Supplier<UserDto> loader) throws JsonProcessingException {
+        String key;
+        try {
+            key = namespaces.key(keyspace, id);
+        } catch (DataAccessException e) {
+            return loader.get();
+        }
+        return load(key, loader);
+    }
+
+    private UserDto load(String key, Supplier<UserDto> loader) throws JsonProcessingException {
+        return loads.execute(key, () -> {
+            long start = clock.millis();
+            UserDto userDto = loader.get();
+            long delta = clock.millis() - start;
+            cacheMetrics.recordLoad(key, TimeUnit.MILLISECONDS.toNanos(delta));
+            put(userDto, delta);
+            return userDto;
+        });
+    }
+
+    /**
+     * Schedules a background reload of the user if its envelope says so. At most one refresh per user is
+     * scheduled at a time; refreshes are dropped when the refresh executor is saturated.
+     */
+    private void refreshIfDue(CacheEnvelope<UserDto> envelope, Supplier<UserDto> loader) {
+        if (!envelope.shouldRefresh(clock.millis(), earlyRefreshBeta, 1.0 - ThreadLocalRandom.current().nextDouble())) {
+            return;
+        }
+        String key = userKey(envelope.value().getUserName());
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, loader);
+                } catch (Exception e) {
+                    log.warn("Unable to refresh cached user {}: {}", key, e.getMessage());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Looks a user up locally, then in Redis. A Redis failure counts as a miss.
+     */
+    private CacheEnvelope<UserDto> getEnvelope(String userName) throws JsonProcessingException {
+        try {
+            String key = userKey(userName);
+            CacheEnvelope<UserDto> envelope = localUsers.getIfPresent(key);
+            if (envelope == null) {
+                envelope = redisService.get(key, ENVELOPE_TYPE);
+                if (envelope == null || envelope.value() == null) {
+                    return null;
+                }
+                cacheLocally(envelope);
+            } else {
+                cacheMetrics.hit(key, CacheMetrics.LOCAL);
+            }
+            return envelope;
+        } catch (DataAccessException e) {
+            log.debug("Unable to read cached user {} from Redis: {}", userName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Resolves an alias key, locally or in Redis. An alias left behind by a changed email or mobile number
+     * may still point to the user, so the resolved user must carry the looked up value. A Redis failure counts
+     * as a miss.
+     */
+    private CacheEnvelope<UserDto> getEnvelopeByAlias(String keyspace, String value,
+                                                      Function<UserDto, String> identifier)
+            throws JsonProcessingException {
+        CacheEnvelope<UserDto> envelope;
+        try {
+            String aliasKey = namespaces.key(keyspace, value);
+            String userName = localAliases.getIfPresent(aliasKey);
+            envelope = userName == null ? null : localUsers.getIfPresent(userKey(userName));
+            if (envelope == null) {
+                envelope = redisService.getViaAlias(aliasKey, namespaces.prefix(UserConstants.USER_NAME_KEY),
+                        ENVELOPE_TYPE);
+                if (envelope == null || envelope.value() == null) {
+                    return null;
+                }
+                cacheLocally(envelope);
+            } else {
+                cacheMetrics.hit(aliasKey, CacheMetrics.LOCAL);
+            }
+        } catch (DataAccessException e) {
+            log.debug("Unable to read cached user {} from Redis: {}", value, e.getMessage());
+            return null;
+        }
+        return value.equals(identifier.apply(envelope.value())) ? envelope : null;
+    }
+
+    /**
+     * Caches a user in the local tier, unless its keys cannot be formed while Redis is unavailable.
+     */
+    private void cacheLocally(CacheEnvelope<UserDto> envelope) {
+        UserDto userDto = envelope.value();
+        try {
+            List<String> aliasKeys = aliasKeys(userDto);
+            localUsers.put(userKey(userDto.getUserName()), envelope);
+            for (String aliasKey : aliasKeys) {
+                localAliases.put(aliasKey, userDto.getUserName());
+            }
+        } catch (DataAccessException e) {
+            log.debug("Unable to cache user {} locally: {}", userDto.getUserName(), e.getMessage());
+        }
+    }
+
+    private void invalidateLocally(List<String> keys) {
+        localUsers.invalidateAll(keys);
+        localAliases.invalidateAll(keys);
+    }
+
+    private static UserDto valueOf(CacheEnvelope<UserDto> envelope) {
+        return envelope == null ? null : envelope.value();
+    }
+
+    private List<String> aliasKeys(UserDto userDto) {
+        List<String> aliasKeys = new ArrayList<>(2);
+        if (userDto.getEmail() != null) {
+            aliasKeys.add(emailKey(userDto.getEmail()));
+        }
+        if (userDto.getMobileNumber() != null) {
+            aliasKeys.add(mobileKey(userDto.getMobileNumber()));
+        }
+        return aliasKeys;
+    }
+
+    private String userKey(String userName) {
+        return namespaces.key(UserConstants.USER_NAME_KEY, userName);
+    }
+
+    private String emailKey(String email) {
+        return namespaces.key(UserConstants.USER_EMAIL_KEY, email);
+    }
+
+    private String mobileKey(String mobileNumber) {
+        return namespaces.key(UserConstants.USER_MOBILE_KEY, mobileNumber);
+    }
+
+    private void publishInvalidation(List<String> keys) {
+        try {
+            redisService.publish(UserConstants.USER_CACHE_INVALIDATION_CHANNEL,
+                    nodeId + NODE_SEPARATOR + String.join(KEY_SEPARATOR, keys));
+        } catch (RuntimeException e) {
+            log.warn("Unable to publish user cache invalidation for {}: {}", keys, e.getMessage());
+        }
+    }
+
+    private static ExecutorService refreshExecutor(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1_000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-cache-refresh-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,144 @@
+package com.smartim.userservice.service.shared;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.smartim.userservice.dto.UserDto;
+import com.smartim.userservice.mapper.UserMapper;
+import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.repository.projection.UserView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Preloads the profiles of the most recently updated active users into {@link UserCacheService} at startup,
+ * so a deploy or a Redis flush does not send every profile read to the database at once.
+ * Runs as an {@link ApplicationRunner}, which completes before the application reports itself ready to
+ * accept traffic. Users are loaded in pages, most recently updated first, by a few threads in parallel.
+ * Each page is cached in a single pipelined Redis round trip.
+ * Loading stops when the time budget is spent; failures are logged and never prevent startup. A batch size or
+ * parallelism below 1 skips the warm-up with a warning instead of failing startup.
+ * Configuration:
+ *   {@code cache.warmup.enabled}: whether to warm the cache, true by default
+ *   {@code cache.warmup.max-users}: how many users to preload
+ *   {@code cache.warmup.batch-size}: how many users each query loads
+ *   {@code cache.warmup.parallelism}: how many batches load at the same time
+ *   {@code cache.warmup.time-budget-seconds}: how long startup may wait for the warm-up
+ */
+@Slf4j
+@Component
+public class UserCacheWarmer implements ApplicationRunner {
+
+    private static final Sort MOST_RECENTLY_UPDATED =
+            Sort.by(Sort.Direction.DESC, "updatedOn", "createdOn");
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final UserCacheService userCacheService;
+    private final boolean enabled;
+    private final int maxUsers;
+    private final int batchSize;
+    private final int parallelism;
+    private final long timeBudgetMs;
+
+    public UserCacheWarmer(UserRepository userRepository, UserMapper userMapper, UserCacheService userCacheService,
+                           @Value("${cache.warmup.enabled:true}") boolean enabled,
+                           @Value("${cache.warmup.max-users:5000}") int maxUsers,
+                           @Value("${cache.warmup.batch-size:250}") int batchSize,
+                           @Value("${cache.warmup.parallelism:4}") int parallelism,
+                           @Value("${cache.warmup.time-budget-seconds:15}") long timeBudgetSeconds) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.userCacheService = userCacheService;
+        this.enabled = enabled;
+        this.maxUsers = maxUsers;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.timeBudgetMs = TimeUnit.SECONDS.toMillis(timeBudgetSeconds);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled && maxUsers > 0) {
+            warmUp();
+        }
+    }
+
+    /**
+     * Preloads the most recently updated active users, within the time budget.
+     *
+     * @return the number of users cached
+     */
+    public int warmUp() {
+        if (batchSize <= 0 || parallelism <= 0) {
+            log.warn("Skipping user cache warm-up: cache.warmup.batch-size ({}) and cache.warmup.parallelism ({}) "
+                    + "must be positive", batchSize, parallelism);
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = start + timeBudgetMs;
+        AtomicInteger cached = new AtomicInteger();
+        int batches = (maxUsers + batchSize - 1) / batchSize;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, batches), runnable -> {
+            Thread thread = new Thread(runnable, "user-cache-warmup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Void>> loads = new ArrayList<>(batches);
+            for (int batch = 0; batch < batches; batch++) {
+                int page = batch;
+                loads.add(executor.submit(() -> loadBatch(page, deadline, cached)));
+            }
+            for (Future<Void> load : loads) {
+                load.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            log.warn("User cache warm-up ran out of its {} ms budget", timeBudgetMs);
+        } catch (ExecutionException e) {
+            log.warn("User cache warm-up failed: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("User cache warm-up cached {} users in {} ms", cached.get(), System.currentTimeMillis() - start);
+        return cached.get();
+    }
+
+    /**
+     * Loads and caches one page of users. A failure ends the whole warm-up, as it usually means the database
+     * or Redis is unavailable.
+     */
+    private Void loadBatch(int page, long deadline, AtomicInteger cached) throws JsonProcessingException {
+        if (System.currentTimeMillis() >= deadline) {
+            return null;
+        }
+        int size = Math.min(batchSize, maxUsers - page * batchSize);
+        PageRequest pageRequest = PageRequest.of(page, batchSize, MOST_RECENTLY_UPDATED);
+        List<UserView> users = userRepository.findViewsByUserStatus(true, pageRequest);
+        if (users.isEmpty() || System.currentTimeMillis() >= deadline || Thread.currentThread().isInterrupted()) {
+            return null;
+        }
+        List<UserDto> userDtos = users.subList(0, Math.min(size, users.size())).stream()
+                .map(userMapper::toUserDtoFromView)
+                .toList();
+        userCacheService.putAll(userDtos);
+        cached.addAndGet(userDtos.size());
+        return null;
+    }
+}
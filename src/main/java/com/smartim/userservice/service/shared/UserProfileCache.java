@@ -0,0 +1,123 @@
+package com.smartim.userservice.service.shared;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.smartim.userservice.dto.UserDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Spring {@link org.springframework.cache.Cache} view of the user profiles cached by {@link UserCacheService},
+ * looked up either by user-name or by email. Profiles keep the storage of {@link UserCacheService}: one canonical
+ * entry per user with alias keys, background refresh of stale entries and a single load per user on a miss.
+ * Changes to a user are still evicted after commit from domain events by {@link UserCacheMaintenance}, since they
+ * need the previous email and mobile number of the user.
+ */
+@Slf4j
+public class UserProfileCache extends AbstractValueAdaptingCache {
+
+    /**
+     * Identifier a user profile is looked up by.
+     */
+    public enum Lookup {
+        USER_NAME, EMAIL
+    }
+
+    private final String name;
+    private final Lookup lookup;
+    private final UserCacheService userCacheService;
+
+    /**
+     * Creates a cache.
+     *
+     * @param name the name of the cache, as used in the caching annotations
+     * @param lookup the identifier the cache keys are
+     * @param userCacheService the user profile cache
+     */
+    public UserProfileCache(String name, Lookup lookup, UserCacheService userCacheService) {
+        super(false);
+        this.name = name;
+        this.lookup = lookup;
+        this.userCacheService = userCacheService;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return userCacheService;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        try {
+            return switch (lookup) {
+                case USER_NAME -> userCacheService.getByUserName(String.valueOf(key));
+                case EMAIL -> userCacheService.getByEmail(String.valueOf(key));
+            };
+        } catch (JsonProcessingException e) {
+            log.warn("Unable to read cached user {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Supplier<UserDto> loader = () -> {
+            try {
+                return (UserDto) valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        };
+        try {
+            return (T) switch (lookup) {
+                case USER_NAME -> userCacheService.getByUserName(String.valueOf(key), loader);
+                case EMAIL -> userCacheService.getByEmail(String.valueOf(key), loader);
+            };
+        } catch (JsonProcessingException e) {
+            log.warn("Unable to read cached user {}, loading it: {}", key, e.getMessage());
+            return (T) loader.get();
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        try {
+            userCacheService.put((UserDto) toStoreValue(value));
+        } catch (JsonProcessingException e) {
+            log.warn("Unable to cache user {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Evicts a user from both tiers on every node. A user looked up by email is evicted if it is cached.
+     */
+    @Override
+    public void evict(Object key) {
+        String id = String.valueOf(key);
+        if (lookup == Lookup.USER_NAME) {
+            userCacheService.evict(id, Set.of(), Set.of());
+            return;
+        }
+        UserDto userDto = (UserDto) lookup(key);
+        if (userDto != null) {
+            userCacheService.evict(userDto.getUserName(), Set.of(id), Set.of());
+        }
+    }
+
+    /**
+     * Invalidates every cached user on every node.
+     */
+    @Override
+    public void clear() {
+        userCacheService.invalidateAll();
+    }
+}
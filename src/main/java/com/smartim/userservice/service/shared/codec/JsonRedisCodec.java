@@ -0,0 +1,57 @@
+package com.smartim.userservice.service.shared.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Codec storing values as JSON text, the format {@code RedisService} always used.
+ * Uses the shared {@link ObjectMapper} without its pretty-printing, which only wastes Redis memory.
+ */
+@Component
+public class JsonRedisCodec implements RedisCodec {
+
+    public static final String NAME = "json";
+
+    private final ObjectMapper objectMapper;
+
+    public JsonRedisCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Override
+    public boolean canDecode(byte[] data) {
+        for (byte b : data) {
+            if (!Character.isWhitespace(b)) {
+                return b == '{' || b == '[' || b == '"';
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public <T> T decode(byte[] data, JavaType type) throws JsonProcessingException {
+        try {
+            return objectMapper.readValue(data, type);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.smartim.userservice.service.shared.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+
+/**
+ * Service provider interface for the formats in which {@link com.smartim.userservice.service.shared.RedisService}
+ * stores values. Implementations are Spring beans picked up by {@link RedisCodecs}; one of them writes new values,
+ * and every one of them is used to read existing values, so entries written in another format stay readable.
+ */
+public interface RedisCodec {
+
+    /**
+     * Returns the name of the format, used in the {@code redis.codec.format} property.
+     *
+     * @return the name of the format
+     */
+    String name();
+
+    /**
+     * Serializes a value.
+     *
+     * @param value the value to serialize
+     * @return the serialized value
+     * @throws JsonProcessingException if serialization fails
+     */
+    byte[] encode(Object value) throws JsonProcessingException;
+
+    /**
+     * Checks if the data was written in this format, usually by looking at its first bytes.
+     *
+     * @param data the serialized value
+     * @return true if this codec can read the data
+     */
+    boolean canDecode(byte[] data);
+
+    /**
+     * Deserializes a value.
+     *
+     * @param data the serialized value
+     * @param type the type of the value
+     * @param <T> the type of the value
+     * @return the deserialized value
+     * @throws JsonProcessingException if deserialization fails
+     */
+    <T> T decode(byte[] data, JavaType type) throws JsonProcessingException;
+}
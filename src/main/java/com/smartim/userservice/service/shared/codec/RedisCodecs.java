@@ -0,0 +1,156 @@
+package com.smartim.userservice.service.shared.codec;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes and decodes Redis values with the configured {@link RedisCodec}.
+ * Values larger than the compression threshold are deflated and prefixed with a marker byte which neither
+ * JSON nor Smile data can start with. On read, the marker and the leading bytes of the value identify the
+ * format, so values written with another codec, or before compression was enabled, are still readable.
+ * Configuration:
+ *   {@code redis.codec.format}: name of the codec writing new values, {@code json} by default
+ *   {@code redis.codec.compression-threshold-bytes}: minimum encoded size compressed, negative (the default)
+ *   to disable
+ * Nodes running a release older than this class only read uncompressed JSON, so the defaults keep writing it.
+ * Switch to Smile and compression in a second deployment, once every node runs a release able to read them.
+ */
+@Component
+public class RedisCodecs {
+
+    /**
+     * First byte of compressed values.
+     */
+    static final byte COMPRESSED = 0x00;
+
+    private final RedisCodec writer;
+    private final List<RedisCodec> readers;
+    private final int compressionThreshold;
+
+    /**
+     * Creates the codec registry.
+     *
+     * @param codecs all available codecs, used to read values
+     * @param format the name of the codec used to write values
+     * @param compressionThreshold minimum encoded size, in bytes, from which values are compressed
+     * @throws IllegalStateException if no codec has the configured name
+     */
+    public RedisCodecs(List<RedisCodec> codecs,
+                       @Value("${redis.codec.format:json}") String format,
+                       @Value("${redis.codec.compression-threshold-bytes:-1}") int compressionThreshold) {
+        this.writer = codecs.stream()
+                .filter(codec -> codec.name().equals(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown Redis codec format: " + format));
+        this.readers = List.copyOf(codecs);
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Serializes a value with the configured codec, compressing it if it is large.
+     *
+     * @param value the value to serialize
+     * @return the serialized value
+     * @throws JsonProcessingException if serialization fails
+     */
+    public byte[] encode(Object value) throws JsonProcessingException {
+        byte[] data = writer.encode(value);
+        return compressionThreshold >= 0 && data.length >= compressionThreshold ? compress(data) : data;
+    }
+
+    /**
+     * Deserializes a value into the specified class, whatever codec wrote it.
+     *
+     * @param data the serialized value
+     * @param entityClass the class of the value
+     * @param <T> the type of the value
+     * @return the deserialized value
+     * @throws JsonProcessingException if deserialization fails or the format is unknown
+     */
+    public <T> T decode(byte[] data, Class<T> entityClass) throws JsonProcessingException {
+        return decode(data, TypeFactory.defaultInstance().constructType(entityClass));
+    }
+
+    /**
+     * Deserializes a value into the specified generic type, whatever codec wrote it.
+     *
+     * @param data the serialized value
+     * @param typeReference the type reference indicating the type of the value
+     * @param <T> the type of the value
+     * @return the deserialized value
+     * @throws JsonProcessingException if deserialization fails or the format is unknown
+     */
+    public <T> T decode(byte[] data, TypeReference<T> typeReference) throws JsonProcessingException {
+        return decode(data, TypeFactory.defaultInstance().constructType(typeReference));
+    }
+
+    /**
+     * Deserializes a value into the specified Jackson type, whatever codec wrote it.
+     *
+     * @param data the serialized value
+     * @param type the type of the value
+     * @param <T> the type of the value
+     * @return the deserialized value
+     * @throws JsonProcessingException if deserialization fails or the format is unknown
+     */
+    public <T> T decode(byte[] data, JavaType type) throws JsonProcessingException {
+        byte[] plain = data.length > 0 && data[0] == COMPRESSED ? decompress(data) : data;
+        for (RedisCodec reader : readers) {
+            if (reader.canDecode(plain)) {
+                return reader.decode(plain, type);
+            }
+        }
+        throw new JsonParseException(null, "Unknown Redis value format: " + Arrays.toString(
+                Arrays.copyOf(plain, Math.min(plain.length, 4))));
+    }
+
+    private static byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+            out.write(COMPRESSED);
+            byte[] buffer = new byte[Math.max(64, data.length / 2)];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(byte[] data) throws JsonProcessingException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, 1, data.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[Math.max(256, data.length * 2)];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new JsonParseException(null, "Truncated compressed Redis value");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new JsonParseException(null, "Corrupt compressed Redis value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
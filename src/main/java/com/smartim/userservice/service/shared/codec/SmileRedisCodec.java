@@ -0,0 +1,60 @@
+package com.smartim.userservice.service.shared.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Codec storing values as Smile, a binary encoding of the JSON data model. Field names and short
+ * strings are written once and back-referenced, so values are smaller and faster to parse than JSON text.
+ * Uses the modules and settings of the shared {@link ObjectMapper}.
+ */
+@Component
+public class SmileRedisCodec implements RedisCodec {
+
+    public static final String NAME = "smile";
+
+    private final ObjectMapper objectMapper;
+
+    public SmileRedisCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper.copyWith(new SmileFactory());
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    /**
+     * Smile data starts with the header {@code :)\n}.
+     */
+    @Override
+    public boolean canDecode(byte[] data) {
+        return data.length >= 3
+                && data[0] == SmileConstants.HEADER_BYTE_1
+                && data[1] == SmileConstants.HEADER_BYTE_2
+                && data[2] == SmileConstants.HEADER_BYTE_3;
+    }
+
+    @Override
+    public <T> T decode(byte[] data, JavaType type) throws JsonProcessingException {
+        try {
+            return objectMapper.readValue(data, type);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
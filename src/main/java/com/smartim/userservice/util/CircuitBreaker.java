@@ -0,0 +1,173 @@
+package com.smartim.userservice.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count-based circuit breaker guarding calls to a remote resource.
+ * While {@link State#CLOSED} every call is permitted and its outcome is recorded in a sliding window of the
+ * last calls; failed calls and calls slower than the slow call threshold count as failures. Once the window
+ * holds the minimum number of calls and the failure rate reaches the threshold, the breaker opens.
+ * While {@link State#OPEN} calls are rejected without touching the resource. After the open duration the breaker
+ * goes {@link State#HALF_OPEN} and permits a few probe calls: if they all succeed the breaker closes, a single
+ * failure opens it again.
+ * Callers ask for permission with {@link #tryAcquire()} and report the outcome of every permitted call with
+ * {@link #onSuccess(long)} or {@link #onFailure()}.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    /**
+     * State of the breaker.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long slowCallNanos;
+    private final long openDurationMs;
+    private final int halfOpenCalls;
+    private final Clock clock;
+
+    /**
+     * Outcomes of the last calls while closed, {@code true} for a failure, used as a ring buffer.
+     */
+    private final boolean[] window;
+    private int windowPosition;
+    private int windowCalls;
+    private int windowFailures;
+
+    private volatile State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    /**
+     * Creates a closed breaker.
+     *
+     * @param name the name of the guarded resource, used in log messages
+     * @param failureRateThreshold the failure rate, in percent, at which the breaker opens
+     * @param windowSize the number of recent calls the failure rate is computed on
+     * @param minimumCalls the number of calls needed in the window before the failure rate is considered
+     * @param slowCallMs the duration above which a successful call counts as a failure, in milliseconds
+     * @param openDurationMs how long the breaker stays open before probing the resource, in milliseconds
+     * @param halfOpenCalls the number of successful probe calls needed to close the breaker
+     * @param clock the clock timing the open duration
+     */
+    public CircuitBreaker(String name, int failureRateThreshold, int windowSize, int minimumCalls, long slowCallMs,
+                          long openDurationMs, int halfOpenCalls, Clock clock) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openDurationMs = openDurationMs;
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+    }
+
+    /**
+     * Asks permission to call the resource. An open breaker past its open duration goes half-open and hands out
+     * its probe permits.
+     *
+     * @return true if the call may be made, false if it must be skipped
+     */
+    public boolean tryAcquire() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == State.OPEN && clock.millis() - openedAt >= openDurationMs) {
+                transitionTo(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN && halfOpenPermits < halfOpenCalls) {
+                halfOpenPermits++;
+                return true;
+            }
+            return state == State.CLOSED;
+        }
+    }
+
+    /**
+     * Records a permitted call which completed, counting it as a failure if it was slow.
+     *
+     * @param durationNanos how long the call took, in nanoseconds
+     */
+    public void onSuccess(long durationNanos) {
+        if (durationNanos > slowCallNanos) {
+            onFailure();
+            return;
+        }
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                if (++halfOpenSuccesses >= halfOpenCalls) {
+                    transitionTo(State.CLOSED);
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        }
+    }
+
+    /**
+     * Records a permitted call which failed.
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (windowCalls >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCalls) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Returns the current state, without moving an open breaker past its open duration to half-open.
+     *
+     * @return the state of the breaker
+     */
+    public State state() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (windowCalls == window.length) {
+            if (window[windowPosition]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowPosition] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowPosition = (windowPosition + 1) % window.length;
+    }
+
+    private void transitionTo(State newState) {
+        State previous = state;
+        state = newState;
+        halfOpenPermits = 0;
+        halfOpenSuccesses = 0;
+        if (newState == State.OPEN) {
+            openedAt = clock.millis();
+        }
+        if (newState == State.CLOSED) {
+            windowPosition = 0;
+            windowCalls = 0;
+            windowFailures = 0;
+            log.info("Circuit breaker {} moved from {} to {}", name, previous, newState);
+        } else {
+            log.warn("Circuit breaker {} moved from {} to {}", name, previous, newState);
+        }
+    }
+}
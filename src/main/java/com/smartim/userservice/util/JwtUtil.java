@@ -1,29 +1,43 @@
 package com.smartim.userservice.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.smartim.userservice.security.JwtKeyRing;
+import com.smartim.userservice.security.VerifiedToken;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 
 /**
  * Utility class for handling JSON Web Tokens (JWT).
  * Provides methods to generate tokens, extract claims, and validate tokens.
+ * Verified tokens are cached by a SHA-256 digest of the token until they expire,
+ * so repeated requests with the same token skip signature verification.
  */
 @Component
+@RequiredArgsConstructor
 public class JwtUtil {
 
     /**
-     * Secret key used for signing the JWT.
-     * Loaded from application yaml.
+     * Maximum number of verified tokens kept in memory.
+     */
+    private static final long VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
+    /**
+     * Keys used for signing and verifying the JWT.
      */
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final JwtKeyRing keyRing;
 
     /**
      * JWT expiration time in milliseconds.
@@ -32,6 +46,29 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private long jwtExpirationTimeMs;
 
+    /**
+     * Verified tokens keyed by token digest, each entry evicted at the token's expiration time.
+     */
+    private final Cache<String, VerifiedToken> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+            .expireAfter(new Expiry<String, VerifiedToken>() {
+                @Override
+                public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                    return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, token, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
     /**
      * Generates a JWT token containing username and role as claims.
      *
@@ -40,14 +77,15 @@ public class JwtUtil {
      * @return a signed JWT token as a String
      */
     public String generateToken(String userName, String role, String email){
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
         return Jwts.builder()
+                .setHeaderParam("kid", signingKey.keyId())
                 .setSubject(userName)
                 .claim("role", role)
                 .claim("email", email)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationTimeMs))
-                .signWith(key, SignatureAlgorithm.HS256)
+                .signWith(signingKey.key(), signingKey.algorithm())
                 .compact();
     }
 
@@ -58,13 +96,32 @@ public class JwtUtil {
      * @return the claims (payload) in the token
      */
     public Claims extractAllClaims(String token){
-        return Jwts.parserBuilder()
-                .setSigningKey(jwtSecret.getBytes())
-                .build()
+        return keyRing.parser()
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    /**
+     * Verifies the signature and expiration of the JWT token once and returns its claims.
+     * Subsequent calls with the same token are served from memory until the token expires.
+     *
+     * @param token the JWT token
+     * @return the verified claims of the token
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verifyToken(String token){
+        String digest = digest(token);
+        VerifiedToken verifiedToken = verifiedTokens.getIfPresent(digest);
+        if (verifiedToken != null && !verifiedToken.isExpired()) {
+            return verifiedToken;
+        }
+        Claims claims = extractAllClaims(token);
+        verifiedToken = new VerifiedToken(claims.getSubject(), claims.get("role", String.class),
+                claims.get("email", String.class), claims.getExpiration().toInstant());
+        verifiedTokens.put(digest, verifiedToken);
+        return verifiedToken;
+    }
+
     /**
      * Extracts the username (subject) from the JWT token.
      *
@@ -72,7 +129,7 @@ public class JwtUtil {
      * @return the username/email stored in the token
      */
     public String extractUsername(String token){
-        return extractAllClaims(token).getSubject();
+        return verifyToken(token).userName();
     }
 
     /**
@@ -82,7 +139,7 @@ public class JwtUtil {
      * @return the user's role
      */
     public String extractRole(String token){
-        return (String) extractAllClaims(token).get("role");
+        return verifyToken(token).role();
     }
 
     /**
@@ -93,7 +150,7 @@ public class JwtUtil {
      */
     public boolean isTokenExpired(String token) {
         try {
-            return extractAllClaims(token).getExpiration().before(new Date());
+            return verifyToken(token).isExpired();
         } catch (io.jsonwebtoken.JwtException e) {
             return true;
         }
@@ -108,10 +165,25 @@ public class JwtUtil {
      */
     public boolean isTokenValid(String token, String userName){
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userName) && !isTokenExpired(token));
+            final VerifiedToken verifiedToken = verifyToken(token);
+            return (verifiedToken.userName().equals(userName) && !verifiedToken.isExpired());
         } catch (io.jsonwebtoken.JwtException e) {
             return false;
         }
     }
+
+    /**
+     * Computes the cache key of a token. Only the digest is kept in memory, never the bearer token itself.
+     *
+     * @param token the JWT token
+     * @return Base64 encoded SHA-256 digest of the token
+     */
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
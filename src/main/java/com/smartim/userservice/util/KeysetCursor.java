@@ -0,0 +1,50 @@
+package com.smartim.userservice.util;
+
+import com.smartim.userservice.contants.UserConstants;
+import com.smartim.userservice.exception.RequestProcessingException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursors of keyset-paginated listings. A cursor holds the id of the last row of a page; the next page
+ * starts after it, so reading a page costs an index range scan whatever its position in the table.
+ * Cursors are versioned URL-safe Base64 tokens, so their layout can change without clients parsing them.
+ */
+public final class KeysetCursor {
+
+    private static final String VERSION = "v1:";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Encodes the cursor of the page following a row.
+     *
+     * @param lastId the id of the last row of the page
+     * @return the opaque cursor
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((VERSION + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor returned by {@link #encode(long)}.
+     *
+     * @param cursor the opaque cursor
+     * @return the id of the last row of the previous page
+     * @throws RequestProcessingException if the cursor is malformed
+     */
+    public static long decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(VERSION)) {
+                throw new RequestProcessingException(UserConstants.INVALID_CURSOR);
+            }
+            return Long.parseLong(value.substring(VERSION.length()));
+        } catch (IllegalArgumentException e) {
+            throw new RequestProcessingException(UserConstants.INVALID_CURSOR);
+        }
+    }
+}
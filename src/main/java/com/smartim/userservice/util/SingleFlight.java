@@ -0,0 +1,78 @@
+package com.smartim.userservice.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Utility class coalescing concurrent loads of the same key.
+ * The first caller for a key runs the loader; callers arriving while it runs wait for and share its
+ * result, or its exception. Once the load completes the key is released, so later callers load again.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the loaded values
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * A loader which may throw a checked exception.
+     *
+     * @param <V> the type of the loaded value
+     * @param <E> the type of the checked exception
+     */
+    @FunctionalInterface
+    public interface Loader<V, E extends Exception> {
+        V load() throws E;
+    }
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the value of a key, or waits for the load already running for that key.
+     *
+     * @param key the key to load
+     * @param loader the loader run if no load is running for the key
+     * @param <E> the type of the checked exception thrown by the loader
+     * @return the loaded value
+     * @throws E if the loader throws it
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Exception> V execute(K key, Loader<V, E> loader) throws E {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw (E) cause;
+            }
+        }
+        try {
+            V value = loader.load();
+            flight.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Returns the number of loads currently running.
+     *
+     * @return the number of keys being loaded
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,61 @@
+package com.smartim.userservice.benchmark;
+
+import com.smartim.userservice.security.JwtKeyRing;
+import com.smartim.userservice.security.VerifiedToken;
+import com.smartim.userservice.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of authenticating a JWT in {@code JwtAuthFilter}.
+ * {@code threeParses} reproduces the former filter path (extract username, then
+ * validate username and expiration, each parsing and verifying the token again),
+ * {@code verifiedClaimsCache} is the current single {@link JwtUtil#verifyToken(String)} call.
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.smartim.userservice.benchmark.JwtVerificationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(new JwtKeyRing("a-very-long-and-secure-secret-key-for-benchmark-purposes-only", 3_600_000L, 0, "HS256", null, null, null));
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationTimeMs", 3_600_000L);
+        token = jwtUtil.generateToken("benchuser", "USER", "bench@example.com");
+    }
+
+    @Benchmark
+    public boolean threeParses() {
+        String username = jwtUtil.extractAllClaims(token).getSubject();
+        Claims claims = jwtUtil.extractAllClaims(token);
+        boolean notExpired = !jwtUtil.extractAllClaims(token).getExpiration().before(new Date());
+        return claims.getSubject().equals(username) && notExpired;
+    }
+
+    @Benchmark
+    public boolean verifiedClaimsCache() {
+        VerifiedToken verifiedToken = jwtUtil.verifyToken(token);
+        return verifiedToken.userName() != null && !verifiedToken.isExpired();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,129 @@
+package com.smartim.userservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartim.userservice.config.UserConfig;
+import com.smartim.userservice.dto.UserDto;
+import com.smartim.userservice.service.shared.CacheEnvelope;
+import com.smartim.userservice.service.shared.codec.JsonRedisCodec;
+import com.smartim.userservice.service.shared.codec.RedisCodec;
+import com.smartim.userservice.service.shared.codec.RedisCodecs;
+import com.smartim.userservice.service.shared.codec.SmileRedisCodec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of writing and reading cached values with each Redis value format.
+ * {@code indentedJson} is the former format (the application {@code ObjectMapper}, pretty-printed),
+ * {@code json}, {@code smile} and {@code smileDeflate} go through {@link RedisCodecs}. The encoded size of
+ * each format is printed once per fork.
+ * Run with: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.smartim.userservice.benchmark.RedisCodecBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisCodecBenchmark {
+
+    private static final TypeReference<CacheEnvelope<List<UserDto>>> TYPE = new TypeReference<>() {};
+
+    @Param({"1", "100"})
+    public int users;
+
+    private ObjectMapper objectMapper;
+    private RedisCodecs json;
+    private RedisCodecs smile;
+    private RedisCodecs smileDeflate;
+    private CacheEnvelope<List<UserDto>> value;
+    private byte[] indentedJsonBytes;
+    private byte[] jsonBytes;
+    private byte[] smileBytes;
+    private byte[] smileDeflateBytes;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new UserConfig().objectMapper();
+        List<RedisCodec> codecs = List.of(new JsonRedisCodec(objectMapper), new SmileRedisCodec(objectMapper));
+        json = new RedisCodecs(codecs, "json", -1);
+        smile = new RedisCodecs(codecs, "smile", -1);
+        smileDeflate = new RedisCodecs(codecs, "smile", 1024);
+
+        List<UserDto> userDtos = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            UserDto userDto = new UserDto();
+            userDto.setUserName("benchuser" + i);
+            userDto.setEmail("benchuser" + i + "@example.com");
+            userDto.setMobileNumber(String.format("98765%05d", i));
+            userDto.setFullName("Bench User " + i);
+            userDto.setRole("USER");
+            userDto.setCreatedOn(LocalDateTime.of(2025, 1, 1, 10, 0));
+            userDtos.add(userDto);
+        }
+        value = new CacheEnvelope<>(userDtos, 1_700_000_000_000L, 12);
+
+        indentedJsonBytes = objectMapper.writeValueAsBytes(value);
+        jsonBytes = json.encode(value);
+        smileBytes = smile.encode(value);
+        smileDeflateBytes = smileDeflate.encode(value);
+        System.out.printf("%n%d users: indented json %d B, json %d B, smile %d B, smile+deflate %d B%n", users,
+                indentedJsonBytes.length, jsonBytes.length, smileBytes.length, smileDeflateBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeIndentedJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws JsonProcessingException {
+        return json.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encodeSmile() throws JsonProcessingException {
+        return smile.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encodeSmileDeflate() throws JsonProcessingException {
+        return smileDeflate.encode(value);
+    }
+
+    @Benchmark
+    public CacheEnvelope<List<UserDto>> decodeIndentedJson() throws IOException {
+        return objectMapper.readValue(indentedJsonBytes, TYPE);
+    }
+
+    @Benchmark
+    public CacheEnvelope<List<UserDto>> decodeJson() throws JsonProcessingException {
+        return json.decode(jsonBytes, TYPE);
+    }
+
+    @Benchmark
+    public CacheEnvelope<List<UserDto>> decodeSmile() throws JsonProcessingException {
+        return smile.decode(smileBytes, TYPE);
+    }
+
+    @Benchmark
+    public CacheEnvelope<List<UserDto>> decodeSmileDeflate() throws JsonProcessingException {
+        return smileDeflate.decode(smileDeflateBytes, TYPE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RedisCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,118 @@
+package com.smartim.userservice.config;
+
+import com.smartim.userservice.controller.JwksController;
+import com.smartim.userservice.security.JwtAuthFilter;
+import com.smartim.userservice.security.JwtKeyRing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = JwksController.class, properties = {
+        "security.password.min-strength=4", "security.password.max-strength=4"})
+@Import({SecurityConfig.class, AdminSecurityTest.Metrics.class})
+class AdminSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private JwtAuthFilter jwtAuthFilter;
+
+    @MockitoBean
+    private JwtKeyRing jwtKeyRing;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<FilterChain>getArgument(2).doFilter(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(jwtAuthFilter).doFilter(any(), any(), any());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void whenUnauthenticated_thenCacheStatsAreRejected() throws Exception {
+        mockMvc.perform(get("/actuator/caches-stats"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", authorities = "USER")
+    void whenNotAdmin_thenCacheStatsAreForbidden() throws Exception {
+        mockMvc.perform(get("/actuator/caches-stats"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = "ADMIN")
+    void whenAdmin_thenCacheStatsAreAllowed() throws Exception {
+        mockMvc.perform(get("/actuator/caches-stats"))
+                .andExpect(result -> assertNotEquals(403, result.getResponse().getStatus()));
+    }
+
+    @Test
+    @WithAnonymousUser
+    void whenUnauthenticated_thenHealthIsAccessible() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(result -> assertNotEquals(403, result.getResponse().getStatus()));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", authorities = "USER")
+    void whenNotAdmin_thenUserCacheInvalidationIsForbidden() throws Exception {
+        mockMvc.perform(post("/api/admin/users/cache/invalidate"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = "ADMIN")
+    void whenAdmin_thenUserCacheInvalidationIsAllowed() throws Exception {
+        mockMvc.perform(post("/api/admin/users/cache/invalidate"))
+                .andExpect(result -> assertNotEquals(403, result.getResponse().getStatus()));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser", authorities = "USER")
+    void whenNotAdmin_thenUserExportIsForbidden() throws Exception {
+        mockMvc.perform(get("/api/admin/users/export"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", authorities = "ADMIN")
+    void whenAdmin_thenUserExportIsAllowed() throws Exception {
+        mockMvc.perform(get("/api/admin/users/export"))
+                .andExpect(result -> assertNotEquals(403, result.getResponse().getStatus()));
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package com.smartim.userservice.config;
 
+import com.smartim.userservice.service.shared.CacheNamespaces;
+import com.smartim.userservice.service.shared.NegativeLookupCache;
+import com.smartim.userservice.service.shared.TieredCacheManager;
+import com.smartim.userservice.service.shared.UserCacheMaintenance;
+import com.smartim.userservice.service.shared.UserCacheService;
+import com.smartim.userservice.util.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -7,10 +14,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
 
 @ExtendWith(MockitoExtension.class)
 class RedisConfigTest {
@@ -34,4 +44,35 @@ class RedisConfigTest {
         assertEquals(StringRedisSerializer.class, redisTemplate.getKeySerializer().getClass());
         assertEquals(StringRedisSerializer.class, redisTemplate.getValueSerializer().getClass());
     }
+
+    @Test
+    void testBinaryRedisTemplate() {
+        RedisTemplate<String, byte[]> redisTemplate = redisConfig.binaryRedisTemplate(redisConnectionFactory);
+
+        assertNotNull(redisTemplate);
+        assertEquals(redisConnectionFactory, redisTemplate.getConnectionFactory());
+        assertEquals(StringRedisSerializer.class, redisTemplate.getKeySerializer().getClass());
+        assertEquals(RedisSerializer.byteArray().getClass(), redisTemplate.getValueSerializer().getClass());
+    }
+
+    @Test
+    void testRedisCircuitBreaker() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        CircuitBreaker circuitBreaker = redisConfig.redisCircuitBreaker(meterRegistry, 50, 20, 10, 100, 10_000, 3);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        assertEquals(1, meterRegistry.get("cache.redis.circuit.state").tag("state", "closed").gauge().value());
+        assertEquals(0, meterRegistry.get("cache.redis.circuit.state").tag("state", "open").gauge().value());
+    }
+
+    @Test
+    void testCacheInvalidationListener() {
+        RedisMessageListenerContainer container = redisConfig.cacheInvalidationListener(redisConnectionFactory,
+                mock(UserCacheService.class), mock(NegativeLookupCache.class), mock(CacheNamespaces.class),
+                mock(TieredCacheManager.class), mock(UserCacheMaintenance.class));
+
+        assertNotNull(container);
+        assertEquals(redisConnectionFactory, container.getConnectionFactory());
+    }
 }
@@ -4,6 +4,7 @@ import com.smartim.userservice.controller.UserAddressController;
 import com.smartim.userservice.controller.UserAdminController;
 import com.smartim.userservice.controller.UserController;
 import com.smartim.userservice.security.JwtAuthFilter;
+import com.smartim.userservice.security.JwtKeyRing;
 import com.smartim.userservice.service.AddressService;
 import com.smartim.userservice.service.UserService;
 import com.smartim.userservice.service.shared.RedisService;
@@ -30,6 +31,9 @@ class SecurityConfigTest {
     @MockitoBean
     private JwtAuthFilter jwtAuthFilter;
 
+    @MockitoBean
+    private JwtKeyRing jwtKeyRing;
+
     @MockitoBean
     private UserDetailsService userDetailsService;
 
@@ -0,0 +1,56 @@
+package com.smartim.userservice.controller;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.smartim.userservice.security.JwtKeyRing;
+import com.smartim.userservice.security.UserStatusCache;
+import com.smartim.userservice.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(JwksController.class)
+@WithMockUser
+class JwksControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private JwtKeyRing jwtKeyRing;
+
+    @MockitoBean
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private UserStatusCache userStatusCache;
+
+    @Test
+    void jwks_ShouldReturnCacheablePublicKeys() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        RSAPublicKey publicKey = (RSAPublicKey) generator.generateKeyPair().getPublic();
+        when(jwtKeyRing.jwkSet()).thenReturn(new JWKSet(new RSAKey.Builder(publicKey).keyID("kid-1").build()));
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=900, public"))
+                .andExpect(jsonPath("$.keys[0].kid").value("kid-1"))
+                .andExpect(jsonPath("$.keys[0].kty").value("RSA"));
+    }
+}
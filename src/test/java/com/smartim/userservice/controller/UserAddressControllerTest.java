@@ -5,6 +5,7 @@ import com.smartim.userservice.dto.AddAddressRequest;
 import com.smartim.userservice.dto.AddressDto;
 import com.smartim.userservice.dto.UpdateAddressRequest;
 import com.smartim.userservice.service.AddressService;
+import com.smartim.userservice.security.UserStatusCache;
 import com.smartim.userservice.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -43,6 +44,9 @@ class UserAddressControllerTest {
     @MockitoBean
     private UserDetailsService userDetailsService;
 
+    @MockitoBean
+    private UserStatusCache userStatusCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -2,7 +2,11 @@ package com.smartim.userservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartim.userservice.dto.UserDto;
+import com.smartim.userservice.dto.UserPageDto;
+import com.smartim.userservice.service.UserExportService;
 import com.smartim.userservice.service.UserService;
+import com.smartim.userservice.service.shared.UserCacheService;
+import com.smartim.userservice.security.UserStatusCache;
 import com.smartim.userservice.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,11 +17,17 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -39,6 +49,15 @@ class UserAdminControllerTest {
     @MockitoBean
     private UserDetailsService userDetailsService;
 
+    @MockitoBean
+    private UserStatusCache userStatusCache;
+
+    @MockitoBean
+    private UserCacheService userCacheService;
+
+    @MockitoBean
+    private UserExportService userExportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -54,25 +73,52 @@ class UserAdminControllerTest {
 
     @Test
     void getAllUsers_ShouldReturnListOfUsers() throws Exception {
-        when(userService.getUsersWithFilters(any(), any(), any())).thenReturn(Collections.singletonList(userDto));
+        when(userService.getUsersPage(null, null, null, null, 50, false))
+                .thenReturn(new UserPageDto(Collections.singletonList(userDto), "djE6MQ", null));
 
         mockMvc.perform(get("/api/admin/users/getUsers"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].userName").value("testuser"));
+                .andExpect(jsonPath("$.users[0].userName").value("testuser"))
+                .andExpect(jsonPath("$.nextCursor").value("djE6MQ"));
     }
 
     @Test
     void getAllUsers_WithFilters_ShouldReturnFilteredListOfUsers() throws Exception {
-        when(userService.getUsersWithFilters("test@example.com", "USER", true))
-                .thenReturn(Collections.singletonList(userDto));
+        when(userService.getUsersPage("test@example.com", "USER", true, "djE6MQ", 20, true))
+                .thenReturn(new UserPageDto(Collections.singletonList(userDto), null, 1L));
 
         mockMvc.perform(get("/api/admin/users/getUsers")
                         .param("email", "test@example.com")
                         .param("role", "USER")
-                        .param("status", "true"))
+                        .param("status", "true")
+                        .param("cursor", "djE6MQ")
+                        .param("size", "20")
+                        .param("includeTotal", "true"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].userName").value("testuser"));
+                .andExpect(jsonPath("$.users[0].userName").value("testuser"))
+                .andExpect(jsonPath("$.totalEstimate").value(1));
+    }
+
+    @Test
+    void exportUsers_ShouldStreamTheExportAsAnAttachment() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write("userName\ntestuser\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userExportService).exportUsers(eq("USER"), isNull(), eq(UserExportService.Format.CSV), any());
+
+        MvcResult result = mockMvc.perform(get("/api/admin/users/export")
+                        .param("role", "USER")
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(1_800_000L, result.getRequest().getAsyncContext().getTimeout());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andExpect(content().string("userName\ntestuser\n"));
     }
 
     @Test
@@ -87,6 +133,14 @@ class UserAdminControllerTest {
                 .andExpect(content().string("User role updated"));
     }
 
+    @Test
+    void invalidateUserCache_ShouldBumpUserKeyspaces() throws Exception {
+        mockMvc.perform(post("/api/admin/users/cache/invalidate").with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("User cache invalidated"));
+        verify(userCacheService).invalidateAll();
+    }
+
     @Test
     void deleteUser_ShouldReturnSuccessMessage() throws Exception {
         doNothing().when(userService).deleteUser(anyString());
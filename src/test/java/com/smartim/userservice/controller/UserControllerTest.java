@@ -2,14 +2,20 @@ package com.smartim.userservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartim.userservice.dto.*;
+import com.smartim.userservice.exception.LoginThrottledException;
+import com.smartim.userservice.security.ClientIpResolver;
+import com.smartim.userservice.security.UserStatusCache;
 import com.smartim.userservice.service.UserService;
-import com.smartim.userservice.service.shared.RedisService;
+import com.smartim.userservice.service.shared.LoginThrottleService;
 import com.smartim.userservice.util.JwtUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -18,12 +24,16 @@ import org.springframework.test.web.servlet.MockMvc;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+@Import(ClientIpResolver.class)
 @WithMockUser(username = "testuser")
 class UserControllerTest {
 
@@ -33,15 +43,18 @@ class UserControllerTest {
     @MockitoBean
     private UserService userService;
 
-    @MockitoBean
-    private RedisService redisService;
-
     @MockitoBean
     private JwtUtil jwtUtil;
 
     @MockitoBean
     private UserDetailsService userDetailsService;
 
+    @MockitoBean
+    private UserStatusCache userStatusCache;
+
+    @MockitoBean
+    private LoginThrottleService loginThrottleService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -78,12 +91,63 @@ class UserControllerTest {
                         .content(objectMapper.writeValueAsString(loginRequest)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("mockToken"));
+        verify(loginThrottleService).recordSuccess(null);
+    }
+
+    @Test
+    void login_ShouldRecordFailure_WhenCredentialsAreInvalid() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUserName("testuser");
+        when(userService.login(any(LoginRequest.class))).thenThrow(new BadCredentialsException("Invalid password"));
+
+        mockMvc.perform(post("/api/users/login")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isBadRequest());
+        verify(loginThrottleService).recordFailure(eq("testuser"), any());
+        verify(loginThrottleService, never()).recordSuccess(anyString());
+    }
+
+    @Test
+    void login_ShouldThrottleForwardedClient_WhenBehindTrustedProxy() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUserName("testuser");
+        when(userService.login(any(LoginRequest.class))).thenThrow(new BadCredentialsException("Invalid password"));
+
+        mockMvc.perform(post("/api/users/login")
+                        .with(csrf())
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.5");
+                            return request;
+                        })
+                        .header("X-Forwarded-For", "203.0.113.7, 10.0.0.4")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isBadRequest());
+        verify(loginThrottleService).checkAllowed("testuser", "203.0.113.7");
+        verify(loginThrottleService).recordFailure("testuser", "203.0.113.7");
+    }
+
+    @Test
+    void login_ShouldReturnTooManyRequests_WhenThrottled() throws Exception {
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUserName("testuser");
+        doThrow(new LoginThrottledException("Too many attempts", 30))
+                .when(loginThrottleService).checkAllowed(eq("testuser"), any());
+
+        mockMvc.perform(post("/api/users/login")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"));
+        verify(userService, never()).login(any(LoginRequest.class));
     }
 
     @Test
     @WithMockUser(username = "testuser")
     void profile_ShouldReturnUserDto() throws Exception {
-        when(redisService.get(anyString(), eq(UserDto.class))).thenReturn(null);
         when(userService.getUserByUserName("testuser")).thenReturn(userDto);
 
         mockMvc.perform(get("/api/users/me"))
@@ -117,7 +181,6 @@ class UserControllerTest {
 
     @Test
     void getUserById_ShouldReturnUserDto() throws Exception {
-        when(redisService.get(anyString(), eq(UserDto.class))).thenReturn(null);
         when(userService.getUserByEmail("test@example.com")).thenReturn(userDto);
 
         mockMvc.perform(get("/api/users/test@example.com"))
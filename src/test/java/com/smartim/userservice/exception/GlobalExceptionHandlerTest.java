@@ -6,6 +6,7 @@ import com.smartim.userservice.util.JwtUtil;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -198,4 +199,50 @@ class GlobalExceptionHandlerTest {
         assertEquals("Bad credentials", body.getErrorMessage());
         assertEquals(HttpStatus.BAD_REQUEST, body.getErrorCode());
     }
+
+    @Test
+    void handlePasswordHashingRejectedException() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+        PasswordHashingRejectedException exception =
+                new PasswordHashingRejectedException("Too busy", 2);
+
+        WebRequest webRequest = mock(WebRequest.class);
+        when(webRequest.getDescription(false))
+                .thenReturn("uri=/api/users/login");
+
+        ResponseEntity<ErrorResponseDto> response =
+                handler.handlePasswordHashingRejectedException(exception, webRequest);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        ErrorResponseDto body = response.getBody();
+        assertNotNull(body);
+        assertEquals("Too busy", body.getErrorMessage());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, body.getErrorCode());
+    }
+
+    @Test
+    void handleLoginThrottledException() {
+        GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+        LoginThrottledException exception =
+                new LoginThrottledException("Too many attempts", 30);
+
+        WebRequest webRequest = mock(WebRequest.class);
+        when(webRequest.getDescription(false))
+                .thenReturn("uri=/api/users/login");
+
+        ResponseEntity<ErrorResponseDto> response =
+                handler.handleLoginThrottledException(exception, webRequest);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("30", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        ErrorResponseDto body = response.getBody();
+        assertNotNull(body);
+        assertEquals("Too many attempts", body.getErrorMessage());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, body.getErrorCode());
+    }
 }
@@ -4,8 +4,10 @@ import com.smartim.userservice.dto.RegisterRequest;
 import com.smartim.userservice.dto.UpdateUserRequest;
 import com.smartim.userservice.dto.UserDto;
 import com.smartim.userservice.entity.User;
+import com.smartim.userservice.repository.projection.UserView;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Collections;
@@ -95,4 +97,19 @@ class UserMapperTest {
         assertEquals("9876543210", userDtos.getFirst().getMobileNumber());
         assertEquals("Test User", userDtos.getFirst().getFullName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void toUserDtoFromView() {
+        User user = new User();
+        user.setUserName("testuser");
+        user.setEmail("testuser@abc.com");
+        user.setRole("USER");
+        UserView userView = new SpelAwareProxyProjectionFactory().createProjection(UserView.class, user);
+
+        UserDto userDto = userMapper.toUserDtoFromView(userView);
+
+        assertEquals("testuser", userDto.getUserName());
+        assertEquals("testuser@abc.com", userDto.getEmail());
+        assertEquals("USER", userDto.getRole());
+    }
+}
@@ -1,6 +1,8 @@
 package com.smartim.userservice.repository;
 
 import com.smartim.userservice.entity.Address;
+import com.smartim.userservice.repository.projection.AddressView;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
@@ -62,4 +64,23 @@ class AddressRepositoryTest {
         assertNotNull(foundAddresses);
         assertEquals(0, foundAddresses.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void findViewsByUserName_ShouldNotLoadTheEntities() {
+        Address address = new Address();
+        address.setUserName("testuser");
+        address.setCity("City1");
+        address.setCreatedBy("testuser");
+        address.setCreatedOn(LocalDateTime.now());
+        entityManager.persist(address);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<AddressView> foundAddresses = addressRepository.findViewsByUserName("testuser");
+
+        assertEquals(1, foundAddresses.size());
+        assertEquals("City1", foundAddresses.getFirst().getCity());
+        assertEquals(address.getId(), foundAddresses.getFirst().getId());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
@@ -1,16 +1,23 @@
 package com.smartim.userservice.repository;
 
 import com.smartim.userservice.entity.User;
+import com.smartim.userservice.repository.projection.UserListView;
+import com.smartim.userservice.repository.projection.UserView;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -84,6 +91,64 @@ class UserRepositoryTest {
         assertEquals(1, foundUsers.size());
     }
 
+    @Test
+    void findUserStatusByUserName_ShouldReturnStatus() {
+        assertEquals(Optional.of(true), userRepository.findUserStatusByUserName("testuser"));
+        assertFalse(userRepository.findUserStatusByUserName("unknown").isPresent());
+    }
+
+    @Test
+    void findBy_ShouldReadOnePageAfterTheCursor() {
+        User second = new User();
+        second.setUserName("seconduser");
+        second.setEmail("second@example.com");
+        second.setMobileNumber("0987654321");
+        second.setRole("USER");
+        second.setUserStatus(true);
+        second.setCreatedBy("testuser");
+        second.setCreatedOn(LocalDateTime.now());
+        entityManager.persist(second);
+        entityManager.flush();
+
+        Specification<User> afterFirst = (root, query, cb) -> cb.greaterThan(root.get("id"), user.getId());
+        List<UserListView> page = userRepository.findBy(afterFirst,
+                query -> query.as(UserListView.class).sortBy(Sort.by("id")).limit(1).all());
+
+        assertEquals(List.of("seconduser"), page.stream().map(UserListView::getUserName).toList());
+        assertEquals(second.getId(), page.getFirst().getId());
+    }
+
+    @Test
+    void streamUsers_ShouldStreamMatchingUsers() {
+        try (Stream<User> users = userRepository.streamUsers("USER", true, 500)) {
+            assertEquals(List.of("testuser"), users.map(User::getUserName).toList());
+        }
+        try (Stream<User> users = userRepository.streamUsers(null, false, 500)) {
+            assertEquals(0, users.count());
+        }
+    }
+
+    @Test
+    void findViewByUserName_ShouldNotLoadTheEntity() {
+        entityManager.clear();
+
+        Optional<UserView> foundUser = userRepository.findViewByUserName("testuser");
+
+        assertTrue(foundUser.isPresent());
+        assertEquals("test@example.com", foundUser.get().getEmail());
+        assertEquals("USER", foundUser.get().getRole());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void findViews_ShouldReturnMatchingUsers() {
+        assertEquals("testuser", userRepository.findViewByEmail("test@example.com").orElseThrow().getUserName());
+        assertEquals(1, userRepository.findViewsByRole("USER").orElseThrow().size());
+        assertEquals(List.of("testuser"), userRepository.findViewsByUserStatus(true, PageRequest.of(0, 10))
+                .stream().map(UserView::getUserName).toList());
+        assertTrue(userRepository.findViewsByUserStatus(false, PageRequest.of(0, 10)).isEmpty());
+    }
+
     @Test
     void deleteByUserName_ShouldDeleteUser() {
         userRepository.deleteByUserName("testuser");
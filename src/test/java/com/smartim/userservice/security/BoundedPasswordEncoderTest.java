@@ -0,0 +1,86 @@
+package com.smartim.userservice.security;
+
+import com.smartim.userservice.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    void encodeAndMatches_shouldDelegate_andRecordLatency() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 1000, 1, meterRegistry);
+        when(delegate.encode("password")).thenReturn("hash");
+        when(delegate.matches("password", "hash")).thenReturn(true);
+
+        assertEquals("hash", encoder.encode("password"));
+        assertTrue(encoder.matches("password", "hash"));
+        assertEquals(1, meterRegistry.get("password.hash.latency").tag("operation", "encode").timer().count());
+        assertEquals(1, meterRegistry.get("password.hash.latency").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void matches_shouldReject_whenQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 5000, 3, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("a", "hash"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "hash"));
+        while (meterRegistry.get("password.hash.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        PasswordHashingRejectedException exception =
+                assertThrows(PasswordHashingRejectedException.class, () -> encoder.matches("c", "hash"));
+        assertEquals(3, exception.getRetryAfterSeconds());
+        assertEquals(1, meterRegistry.get("password.hash.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void encode_shouldReject_whenHashTimesOut() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 50, 1, meterRegistry);
+        when(delegate.encode("password")).thenAnswer(invocation -> {
+            Thread.sleep(1000);
+            return "hash";
+        });
+
+        assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("password"));
+    }
+
+    @Test
+    void upgradeEncoding_shouldDelegate() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 1000, 1, meterRegistry);
+        when(delegate.upgradeEncoding("hash")).thenReturn(true);
+
+        assertTrue(encoder.upgradeEncoding("hash"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.smartim.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalibratedPasswordEncoderTest {
+
+    @Test
+    void calibrate_shouldStayWithinBounds() {
+        assertEquals(4, CalibratedPasswordEncoder.calibrate(0, 4, 6));
+        assertEquals(6, CalibratedPasswordEncoder.calibrate(60_000, 4, 6));
+    }
+
+    @Test
+    void encode_shouldWriteIdPrefixedHash_andMatch() {
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(0, 4, 4);
+
+        String hash = encoder.encode("password");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(encoder.matches("password", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void legacyHash_shouldMatch_andRequireUpgrade() {
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(0, 4, 4);
+        String legacyHash = new BCryptPasswordEncoder(4).encode("password");
+
+        assertTrue(encoder.matches("password", legacyHash));
+        assertTrue(encoder.upgradeEncoding(legacyHash));
+    }
+
+    @Test
+    void lowerCostHash_shouldRequireUpgrade() {
+        CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(60_000, 5, 5);
+        String lowerCostHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password");
+
+        assertTrue(encoder.matches("password", lowerCostHash));
+        assertTrue(encoder.upgradeEncoding(lowerCostHash));
+    }
+}
@@ -0,0 +1,55 @@
+package com.smartim.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver clientIpResolver = new ClientIpResolver(new String[] {"10.0.0.0/8", "::1/128"});
+
+    @Test
+    void resolve_shouldReturnRemoteAddress_whenNotProxied() {
+        MockHttpServletRequest request = request("203.0.113.7", null);
+
+        assertEquals("203.0.113.7", clientIpResolver.resolve(request));
+    }
+
+    @Test
+    void resolve_shouldReturnForwardedClient_whenBehindTrustedProxies() {
+        MockHttpServletRequest request = request("10.0.0.5", "198.51.100.1, 203.0.113.7, 10.0.0.4");
+
+        assertEquals("203.0.113.7", clientIpResolver.resolve(request));
+    }
+
+    @Test
+    void resolve_shouldIgnoreForwardedHeader_fromUntrustedPeer() {
+        MockHttpServletRequest request = request("203.0.113.7", "198.51.100.1");
+
+        assertEquals("203.0.113.7", clientIpResolver.resolve(request));
+    }
+
+    @Test
+    void resolve_shouldReturnNull_whenTrustedProxyDoesNotForwardClient() {
+        assertNull(clientIpResolver.resolve(request("10.0.0.5", null)));
+        assertNull(clientIpResolver.resolve(request("10.0.0.5", "10.0.0.4")));
+    }
+
+    @Test
+    void resolve_shouldTreatMalformedForwardedAddress_asClient() {
+        MockHttpServletRequest request = request("10.0.0.5", "not-an-ip");
+
+        assertEquals("not-an-ip", clientIpResolver.resolve(request));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
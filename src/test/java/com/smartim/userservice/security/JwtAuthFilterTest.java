@@ -12,14 +12,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.ArrayList;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
@@ -33,6 +38,9 @@ class JwtAuthFilterTest {
     @Mock
     private UserDetailsService userDetailsService;
 
+    @Mock
+    private UserStatusCache userStatusCache;
+
     @InjectMocks
     private JwtAuthFilter jwtAuthFilter;
 
@@ -58,9 +66,9 @@ class JwtAuthFilterTest {
         UserDetails userDetails = new User(username, "password", new ArrayList<>());
 
         when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
-        when(jwtUtil.extractUsername(token)).thenReturn(username);
+        when(jwtUtil.verifyToken(token)).thenReturn(
+                new VerifiedToken(username, "USER", "test@example.com", Instant.now().plusSeconds(60)));
         when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
-        when(jwtUtil.isTokenValid(token, username)).thenReturn(true);
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -70,12 +78,73 @@ class JwtAuthFilterTest {
         verify(filterChain).doFilter(request, response);
     }
 
+    @Test
+    void doFilterInternal_withTokenOfAnotherUser_shouldNotSetAuthentication() throws ServletException, IOException {
+        // Given
+        String token = "valid-token";
+        UserDetails userDetails = new User("otheruser", "password", new ArrayList<>());
+
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
+        when(jwtUtil.verifyToken(token)).thenReturn(
+                new VerifiedToken("testuser", "USER", "test@example.com", Instant.now().plusSeconds(60)));
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
+
+        // When
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_statelessWithActiveUser_shouldSetAuthenticationFromClaims() throws ServletException, IOException {
+        // Given
+        String token = "valid-token";
+        ReflectionTestUtils.setField(jwtAuthFilter, "stateless", true);
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
+        when(jwtUtil.verifyToken(token)).thenReturn(
+                new VerifiedToken("testuser", "ADMIN", "test@example.com", Instant.now().plusSeconds(60)));
+        when(userStatusCache.isActive("testuser")).thenReturn(true);
+
+        // When
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("testuser", authentication.getName());
+        assertEquals("ADMIN", authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).findFirst().orElse(null));
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_statelessWithInactiveUser_shouldNotSetAuthentication() throws ServletException, IOException {
+        // Given
+        String token = "valid-token";
+        ReflectionTestUtils.setField(jwtAuthFilter, "stateless", true);
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
+        when(jwtUtil.verifyToken(token)).thenReturn(
+                new VerifiedToken("testuser", "USER", "test@example.com", Instant.now().plusSeconds(60)));
+        when(userStatusCache.isActive("testuser")).thenReturn(false);
+
+        // When
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+
     @Test
     void doFilterInternal_withInvalidToken_shouldNotSetAuthentication() throws ServletException, IOException {
         // Given
         String token = "invalid-token";
         when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token);
-        when(jwtUtil.extractUsername(token)).thenThrow(new RuntimeException("Invalid token"));
+        when(jwtUtil.verifyToken(token)).thenThrow(new RuntimeException("Invalid token"));
 
         // When
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
@@ -0,0 +1,185 @@
+package com.smartim.userservice.security;
+
+import com.nimbusds.jose.jwk.RSAKey;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingTest {
+
+    private static final String SECRET = "a-very-long-and-secure-secret-key-for-testing-purposes-only";
+    private static final long EXPIRATION_MS = Duration.ofHours(1).toMillis();
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-07-05T10:00:00Z"));
+
+    @Test
+    void signingKey_shouldUseStaticKey_whenRotationDisabled() {
+        JwtKeyRing keyRing = new JwtKeyRing(SECRET, EXPIRATION_MS, 0, SignatureAlgorithm.HS256, null, null, null, clock);
+
+        assertEquals(JwtKeyRing.STATIC_KEY_ID, keyRing.signingKey().keyId());
+        clock.advance(Duration.ofDays(30));
+        assertEquals(JwtKeyRing.STATIC_KEY_ID, keyRing.signingKey().keyId());
+    }
+
+    @Test
+    void signingKey_shouldRotate_andKeepVerifyingPreviousKey() {
+        JwtKeyRing keyRing = new JwtKeyRing(SECRET, EXPIRATION_MS, 60, SignatureAlgorithm.HS256, null, null, null, clock);
+        String oldToken = sign(keyRing.signingKey());
+        String oldKeyId = keyRing.signingKey().keyId();
+
+        clock.advance(Duration.ofMinutes(60));
+        keyRing.rotate();
+
+        assertNotEquals(oldKeyId, keyRing.signingKey().keyId());
+        assertEquals("testuser", keyRing.parser().parseClaimsJws(oldToken).getBody().getSubject());
+        assertEquals("testuser", keyRing.parser().parseClaimsJws(sign(keyRing.signingKey())).getBody().getSubject());
+    }
+
+    @Test
+    void parser_shouldRejectRetiredKey() {
+        JwtKeyRing keyRing = new JwtKeyRing(SECRET, EXPIRATION_MS, 60, SignatureAlgorithm.HS256, null, null, null, clock);
+        String oldToken = sign(keyRing.signingKey());
+
+        clock.advance(Duration.ofHours(3));
+        keyRing.rotate();
+
+        assertThrows(SignatureException.class, () -> keyRing.parser().parseClaimsJws(oldToken));
+    }
+
+    @Test
+    void parser_shouldVerifyTokenWithoutKeyId_usingSecret() {
+        JwtKeyRing keyRing = new JwtKeyRing(SECRET, EXPIRATION_MS, 60, SignatureAlgorithm.HS256, null, null, null, clock);
+        String legacyToken = Jwts.builder()
+                .setSubject("testuser")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertEquals("testuser", keyRing.parser().parseClaimsJws(legacyToken).getBody().getSubject());
+    }
+
+    @Test
+    void keys_shouldBeIdenticalAcrossInstances() {
+        JwtKeyRing first = new JwtKeyRing(SECRET, EXPIRATION_MS, 60, SignatureAlgorithm.HS256, null, null, null, clock);
+        JwtKeyRing second = new JwtKeyRing(SECRET, EXPIRATION_MS, 60, SignatureAlgorithm.HS256, null, null, null, clock);
+
+        assertEquals("testuser", second.parser().parseClaimsJws(sign(first.signingKey())).getBody().getSubject());
+    }
+
+    @Test
+    void rs256_shouldSignWithPrivateKey_andPublishPublicKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        String privateKeyPem = Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded());
+        JwtKeyRing keyRing = new JwtKeyRing(null, EXPIRATION_MS, 0, SignatureAlgorithm.RS256, privateKeyPem, null, null, clock);
+
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
+        String token = sign(signingKey);
+
+        assertEquals(SignatureAlgorithm.RS256, signingKey.algorithm());
+        assertEquals("testuser", keyRing.parser().parseClaimsJws(token).getBody().getSubject());
+        RSAKey published = (RSAKey) keyRing.jwkSet().getKeyByKeyId(signingKey.keyId());
+        assertNotNull(published);
+        assertFalse(published.isPrivate());
+        assertEquals(keyPair.getPublic(), published.toRSAPublicKey());
+    }
+
+    @Test
+    void rs256_shouldVerifyTokensOfPreviousPublicKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair previous = generator.generateKeyPair();
+        KeyPair current = generator.generateKeyPair();
+        JwtKeyRing previousRing = new JwtKeyRing(null, EXPIRATION_MS, 0, SignatureAlgorithm.RS256,
+                Base64.getEncoder().encodeToString(previous.getPrivate().getEncoded()), null, null, clock);
+        String oldToken = sign(previousRing.signingKey());
+
+        JwtKeyRing keyRing = new JwtKeyRing(null, EXPIRATION_MS, 0, SignatureAlgorithm.RS256,
+                Base64.getEncoder().encodeToString(current.getPrivate().getEncoded()),
+                new String[]{Base64.getEncoder().encodeToString(previous.getPublic().getEncoded())}, null, clock);
+
+        assertEquals("testuser", keyRing.parser().parseClaimsJws(oldToken).getBody().getSubject());
+        assertEquals(2, keyRing.jwkSet().getKeys().size());
+    }
+
+    @Test
+    void rs256_shouldFailWithoutPrivateKey() {
+        assertThrows(IllegalStateException.class, () ->
+                new JwtKeyRing(SECRET, EXPIRATION_MS, 0, SignatureAlgorithm.RS256, null, null, null, clock));
+    }
+
+    @Test
+    void rs256_shouldAcceptTokenWithoutKeyId_onlyUntilMigrationEnds() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        String privateKeyPem = Base64.getEncoder().encodeToString(generator.generateKeyPair().getPrivate().getEncoded());
+        String legacyToken = Jwts.builder()
+                .setSubject("testuser")
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+        JwtKeyRing migrating = new JwtKeyRing(SECRET, EXPIRATION_MS, 0, SignatureAlgorithm.RS256, privateKeyPem, null,
+                clock.instant().plus(Duration.ofDays(1)), clock);
+        JwtKeyRing migrated = new JwtKeyRing(SECRET, EXPIRATION_MS, 0, SignatureAlgorithm.RS256, privateKeyPem, null,
+                null, clock);
+
+        assertEquals("testuser", migrating.parser().parseClaimsJws(legacyToken).getBody().getSubject());
+        assertThrows(SignatureException.class, () -> migrated.parser().parseClaimsJws(legacyToken));
+        clock.advance(Duration.ofDays(1));
+        assertThrows(SignatureException.class, () -> migrating.parser().parseClaimsJws(legacyToken));
+    }
+
+    @Test
+    void hs256_shouldPublishNoKeys() {
+        JwtKeyRing keyRing = new JwtKeyRing(SECRET, EXPIRATION_MS, 60, SignatureAlgorithm.HS256, null, null, null, clock);
+
+        assertTrue(keyRing.jwkSet().getKeys().isEmpty());
+    }
+
+    private String sign(JwtKeyRing.SigningKey signingKey) {
+        return Jwts.builder()
+                .setHeaderParam("kid", signingKey.keyId())
+                .setSubject("testuser")
+                .signWith(signingKey.key(), signingKey.algorithm())
+                .compact();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.smartim.userservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDetailsCacheTest {
+
+    private final UserDetailsCache userDetailsCache = new UserDetailsCache(100, 300);
+
+    @Test
+    void putUserInCache_shouldServeTheUserUntilRemoved() {
+        UserDetails user = new CachedUserDetails("testuser", "hash", RoleAuthorities.of("USER"));
+
+        userDetailsCache.putUserInCache(user);
+
+        assertSame(user, userDetailsCache.getUserFromCache("testuser"));
+        userDetailsCache.removeUserFromCache("testuser");
+        assertNull(userDetailsCache.getUserFromCache("testuser"));
+    }
+
+    @Test
+    void putUserInCache_shouldSkipUser_removedAfterItsEpochWasRead() {
+        UserDetails user = new CachedUserDetails("testuser", "hash", RoleAuthorities.of("USER"));
+        long evictionEpoch = userDetailsCache.evictionEpoch("testuser");
+
+        userDetailsCache.removeUserFromCache("TestUser");
+        userDetailsCache.putUserInCache(user, evictionEpoch);
+
+        assertNull(userDetailsCache.getUserFromCache("testuser"));
+        userDetailsCache.putUserInCache(user, userDetailsCache.evictionEpoch("testuser"));
+        assertSame(user, userDetailsCache.getUserFromCache("testuser"));
+    }
+
+    @Test
+    void roleAuthorities_shouldBeInterned() {
+        assertSame(RoleAuthorities.of("ADMIN"), RoleAuthorities.of("ADMIN"));
+        assertEquals("ADMIN", RoleAuthorities.of("ADMIN").get(0).getAuthority());
+        assertTrue(RoleAuthorities.of(null).isEmpty());
+    }
+
+    @Test
+    void cachedUserDetails_shouldNotExposeThePasswordInToString() {
+        UserDetails user = new CachedUserDetails("testuser", "hash", RoleAuthorities.of("USER"));
+
+        assertFalse(user.toString().contains("hash"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.smartim.userservice.security;
+
+import com.smartim.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserStatusCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserStatusCache userStatusCache;
+
+    @BeforeEach
+    void setUp() {
+        userStatusCache = new UserStatusCache(userRepository, 30);
+    }
+
+    @Test
+    void isActive_shouldLoadStatusOnce() {
+        when(userRepository.findUserStatusByUserName("testuser")).thenReturn(Optional.of(true));
+
+        assertTrue(userStatusCache.isActive("testuser"));
+        assertTrue(userStatusCache.isActive("testuser"));
+
+        verify(userRepository, times(1)).findUserStatusByUserName("testuser");
+    }
+
+    @Test
+    void isActive_shouldReturnFalse_forUnknownUser() {
+        when(userRepository.findUserStatusByUserName("unknown")).thenReturn(Optional.empty());
+
+        assertFalse(userStatusCache.isActive("unknown"));
+    }
+
+    @Test
+    void evict_shouldReloadStatus() {
+        when(userRepository.findUserStatusByUserName("testuser")).thenReturn(Optional.of(true), Optional.of(false));
+
+        assertTrue(userStatusCache.isActive("testuser"));
+        userStatusCache.evict("testuser");
+
+        assertFalse(userStatusCache.isActive("testuser"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.smartim.userservice.service.serviceimpl;
 
+import com.smartim.userservice.contants.UserConstants;
 import com.smartim.userservice.dto.AddAddressRequest;
 import com.smartim.userservice.dto.AddressDto;
 import com.smartim.userservice.dto.UpdateAddressRequest;
@@ -10,12 +11,22 @@ import com.smartim.userservice.exception.ResourceNotFoundException;
 import com.smartim.userservice.mapper.AddressMapper;
 import com.smartim.userservice.repository.AddressRepository;
 import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.repository.projection.AddressView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -24,6 +35,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,11 +50,18 @@ class AddressServiceImplTest {
     @Mock
     private AddressMapper addressMapper;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(UserConstants.ADDRESSES_CACHE);
+
     @InjectMocks
     private AddressServiceImpl addressService;
 
     private Address address;
     private AddressDto addressDto;
+    private AddressView addressView;
     private AddAddressRequest addAddressRequest;
     private UpdateAddressRequest updateAddressRequest;
     private User user;
@@ -55,6 +74,8 @@ class AddressServiceImplTest {
         address.setId(1L);
         address.setUserName(USER_NAME);
 
+        addressView = new SpelAwareProxyProjectionFactory().createProjection(AddressView.class, address);
+
         addressDto = new AddressDto();
         addressDto.setId(1L);
 
@@ -70,23 +91,43 @@ class AddressServiceImplTest {
 
     @Test
     void getAddresses_Success() {
-        when(addressRepository.findByUserName(USER_NAME)).thenReturn(List.of(address));
-        when(addressMapper.toAddressDtoListFromAddressList(List.of(address))).thenReturn(List.of(addressDto));
+        when(addressRepository.findViewsByUserName(USER_NAME)).thenReturn(List.of(addressView));
+        when(addressMapper.toAddressDtoListFromViewList(List.of(addressView))).thenReturn(List.of(addressDto));
 
         List<AddressDto> result = addressService.getAddresses(USER_NAME);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(addressDto.getId(), result.getFirst().getId());
-        verify(addressRepository, times(1)).findByUserName(USER_NAME);
+        verify(addressRepository, times(1)).findViewsByUserName(USER_NAME);
+        assertEquals(List.of(addressDto), cachedAddresses(USER_NAME));
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void getAddresses_CacheHit_DoesNotQueryDatabase() {
+        cacheManager.getCache(UserConstants.ADDRESSES_CACHE).put(USER_NAME, List.of(addressDto));
+
+        List<AddressDto> result = addressService.getAddresses(USER_NAME);
+
+        assertEquals(List.of(addressDto), result);
+        verifyNoInteractions(addressRepository, addressMapper, transactionManager);
+    }
+
+    @Test
+    void getAddresses_CachedEmpty_ThrowsResourceNotFoundException() {
+        cacheManager.getCache(UserConstants.ADDRESSES_CACHE).put(USER_NAME, List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> addressService.getAddresses(USER_NAME));
+        verifyNoInteractions(addressRepository);
     }
 
     @Test
     void getAddresses_ThrowsResourceNotFoundException() {
-        when(addressRepository.findByUserName(USER_NAME)).thenReturn(Collections.emptyList());
+        when(addressRepository.findViewsByUserName(USER_NAME)).thenReturn(Collections.emptyList());
 
         assertThrows(ResourceNotFoundException.class, () -> addressService.getAddresses(USER_NAME));
-        verify(addressRepository, times(1)).findByUserName(USER_NAME);
+        verify(addressRepository, times(1)).findViewsByUserName(USER_NAME);
     }
 
     @Test
@@ -104,6 +145,50 @@ class AddressServiceImplTest {
         verify(addressRepository, times(1)).save(address);
     }
 
+    @Test
+    void addAddress_EvictsAddressBook() {
+        cacheManager.getCache(UserConstants.ADDRESSES_CACHE).put(USER_NAME, List.of());
+        when(userRepository.findByUserName(USER_NAME)).thenReturn(Optional.of(user));
+        when(addressRepository.findByUserName(USER_NAME)).thenReturn(new ArrayList<>());
+        when(addressMapper.toAddressEntity(addAddressRequest)).thenReturn(address);
+        when(addressRepository.save(address)).thenReturn(address);
+
+        addressService.addAddress(USER_NAME, addAddressRequest);
+
+        assertNull(cacheManager.getCache(UserConstants.ADDRESSES_CACHE).get(USER_NAME));
+    }
+
+    @Test
+    void addAddress_InterleavedWrites_LeaveNoStaleAddressBookAfterCommit() {
+        AddressServiceImpl transactionalService = new AddressServiceImpl(addressRepository, userRepository,
+                addressMapper, new TransactionAwareCacheManagerProxy(cacheManager), transactionManager);
+        Address second = new Address();
+        second.setId(2L);
+        second.setUserName(USER_NAME);
+        AddAddressRequest secondRequest = new AddAddressRequest();
+        secondRequest.setUserName(USER_NAME);
+        cacheManager.getCache(UserConstants.ADDRESSES_CACHE).put(USER_NAME, List.of());
+        when(userRepository.findByUserName(USER_NAME)).thenReturn(Optional.of(user));
+        when(addressRepository.findByUserName(USER_NAME)).thenReturn(new ArrayList<>());
+        when(addressMapper.toAddressEntity(addAddressRequest)).thenReturn(address);
+        when(addressMapper.toAddressEntity(secondRequest)).thenReturn(second);
+        when(addressRepository.save(any(Address.class))).then(invocation -> invocation.getArgument(0));
+
+        List<TransactionSynchronization> first = inTransaction(
+                () -> transactionalService.addAddress(USER_NAME, addAddressRequest));
+        List<TransactionSynchronization> other = inTransaction(
+                () -> transactionalService.addAddress(USER_NAME, secondRequest));
+        assertEquals(List.of(), cachedAddresses(USER_NAME));
+        other.forEach(TransactionSynchronization::afterCommit);
+        first.forEach(TransactionSynchronization::afterCommit);
+
+        AddressView secondView = new SpelAwareProxyProjectionFactory().createProjection(AddressView.class, second);
+        when(addressRepository.findViewsByUserName(USER_NAME)).thenReturn(List.of(addressView, secondView));
+        when(addressMapper.toAddressDtoListFromViewList(List.of(addressView, secondView)))
+                .thenReturn(List.of(addressDto, new AddressDto()));
+        assertEquals(2, transactionalService.getAddresses(USER_NAME).size());
+    }
+
     @Test
     void addAddress_UserNotFound_ThrowsResourceNotFoundException() {
         when(userRepository.findByUserName(USER_NAME)).thenReturn(Optional.empty());
@@ -140,6 +225,24 @@ class AddressServiceImplTest {
         verify(addressRepository, times(1)).save(address);
     }
 
+    @Test
+    void updateAddress_EvictsAddressBookOfPreviousAndNewOwner() {
+        Cache cache = cacheManager.getCache(UserConstants.ADDRESSES_CACHE);
+        cache.put(USER_NAME, List.of(addressDto));
+        cache.put("other@example.com", List.of());
+        when(addressRepository.findById(1L)).thenReturn(Optional.of(address));
+        doAnswer(invocation -> {
+            invocation.<Address>getArgument(1).setUserName("other@example.com");
+            return null;
+        }).when(addressMapper).toAddressEntity(updateAddressRequest, address);
+        when(addressRepository.save(address)).thenReturn(address);
+
+        addressService.updateAddress(USER_NAME, updateAddressRequest);
+
+        assertNull(cache.get(USER_NAME));
+        assertNull(cache.get("other@example.com"));
+    }
+
     @Test
     void updateAddress_AddressNotFound_ThrowsResourceNotFoundException() {
         when(addressRepository.findById(1L)).thenReturn(Optional.empty());
@@ -160,4 +263,38 @@ class AddressServiceImplTest {
         verify(addressRepository, times(1)).findAllById(addressIds);
         verify(addressRepository, times(1)).deleteAll(addresses);
     }
+
+    @Test
+    void deleteAddresses_EvictsAddressBookOfEachOwner() {
+        Address other = new Address();
+        other.setId(2L);
+        other.setUserName("other@example.com");
+        Cache cache = cacheManager.getCache(UserConstants.ADDRESSES_CACHE);
+        cache.put(USER_NAME, List.of(addressDto));
+        cache.put("other@example.com", List.of(new AddressDto()));
+        when(addressRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(address, other));
+
+        addressService.deleteAddresses(List.of(1L, 2L));
+
+        assertNull(cache.get(USER_NAME));
+        assertNull(cache.get("other@example.com"));
+        verify(addressRepository, never()).findViewsByUserName(any());
+    }
+
+    /**
+     * Runs a write as if in a transaction, returning the synchronizations to run on its commit.
+     */
+    private List<TransactionSynchronization> inTransaction(Runnable write) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            write.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Object cachedAddresses(String userName) {
+        return cacheManager.getCache(UserConstants.ADDRESSES_CACHE).get(userName).get();
+    }
 }
@@ -2,6 +2,11 @@ package com.smartim.userservice.service.serviceimpl;
 
 import com.smartim.userservice.entity.User;
 import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.security.CachedUserDetails;
+import com.smartim.userservice.security.RoleAuthorities;
+import com.smartim.userservice.security.UserDetailsCache;
+import com.smartim.userservice.service.shared.NegativeLookupCache;
+import com.smartim.userservice.service.shared.NegativeLookupCache.Lookup;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -9,6 +14,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +29,12 @@ class UserDetailsServiceImplTest {
     @Mock
     private UserRepository repo;
 
+    @Mock
+    private NegativeLookupCache negativeLookupCache;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
     @InjectMocks
     private UserDetailsServiceImpl userDetailsService;
 
@@ -41,7 +53,53 @@ class UserDetailsServiceImplTest {
         assertEquals(user.getRole(), result.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority).findFirst().orElse(null));
         verify(repo, times(1)).findByUserName(USER_NAME);
+        verify(userDetailsCache).putUserInCache(result, 0L);
+    }
+
+    @Test
+    void testLoadUserByUsername_EvictedWhileLoading_IsNotCached(){
+        UserDetailsCache realCache = new UserDetailsCache(100, 300);
+        UserDetailsServiceImpl service = new UserDetailsServiceImpl(repo, negativeLookupCache, realCache);
+        User user = new User();
+        user.setUserName(USER_NAME);
+        user.setPassword(PASSWORD);
+        user.setRole(ROLE);
+        when(repo.findByUserName(USER_NAME)).thenAnswer(invocation -> {
+            // The role change commits and its eviction runs while the old row is being loaded
+            realCache.removeUserFromCache(USER_NAME);
+            return Optional.of(user);
+        });
+
+        service.loadUserByUsername(USER_NAME);
+
+        assertNull(realCache.getUserFromCache(USER_NAME));
+        service.loadUserByUsername(USER_NAME);
+        verify(repo, times(2)).findByUserName(USER_NAME);
+    }
+
+    @Test
+    void testLoadUserByUsername_Cached_SkipsRepository(){
+        UserDetails cached = new CachedUserDetails(USER_NAME, PASSWORD, RoleAuthorities.of(ROLE));
+        when(userDetailsCache.getUserFromCache(USER_NAME)).thenReturn(cached);
+
+        assertSame(cached, userDetailsService.loadUserByUsername(USER_NAME));
+        verifyNoInteractions(repo, negativeLookupCache);
+    }
+
+    @Test
+    void testLoadUserByUsername_NotFound_MarksMissing(){
+        when(repo.findByUserName(USER_NAME)).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(USER_NAME));
+        verify(negativeLookupCache).markMissing(Lookup.USER_NAME, USER_NAME);
     }
 
+    @Test
+    void testLoadUserByUsername_KnownMissing_SkipsRepository(){
+        when(negativeLookupCache.isMissing(Lookup.USER_NAME, USER_NAME)).thenReturn(true);
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername(USER_NAME));
+        verify(repo, never()).findByUserName(USER_NAME);
+    }
 
 }
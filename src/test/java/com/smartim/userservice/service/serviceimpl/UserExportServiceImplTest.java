@@ -0,0 +1,98 @@
+package com.smartim.userservice.service.serviceimpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.smartim.userservice.dto.UserDto;
+import com.smartim.userservice.entity.User;
+import com.smartim.userservice.mapper.UserMapper;
+import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.service.UserExportService.Format;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExportServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private UserExportServiceImpl userExportService;
+
+    private User user;
+    private UserDto userDto;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        userExportService = new UserExportServiceImpl(userRepository, userMapper, entityManager,
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT), 500);
+        user = new User();
+        userDto = new UserDto();
+        userDto.setUserName("testuser");
+        userDto.setFullName("Doe, \"John\"");
+        userDto.setMobileNumber("=1+2");
+        userDto.setRole("USER");
+        when(userRepository.streamUsers("USER", true, 500))
+                .thenReturn(Stream.of(user).onClose(() -> closed.set(true)));
+        when(userMapper.toUserDtoFromUser(user)).thenReturn(userDto);
+    }
+
+    @Test
+    void exportUsers_shouldWriteOneJsonUserPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.exportUsers("USER", true, Format.NDJSON, out);
+
+        String export = out.toString(StandardCharsets.UTF_8);
+        assertTrue(export.startsWith("{\"email\":null,"));
+        assertTrue(export.endsWith("}\n"));
+        assertEquals(1, export.lines().count());
+        verify(entityManager).detach(user);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void exportUsers_shouldWriteEscapedCsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.exportUsers("USER", true, Format.CSV, out);
+
+        assertEquals("userName,email,fullName,mobileNumber,role,userStatus,createdOn,createdBy,updatedOn,updatedBy\n"
+                        + "testuser,,\"Doe, \"\"John\"\"\",'=1+2,USER,,,,,\n",
+                out.toString(StandardCharsets.UTF_8));
+        verify(entityManager).detach(user);
+    }
+
+    @Test
+    void exportUsers_shouldKeepPhoneNumbersAndGuardFreeTextStartingWithControlCharacters() throws Exception {
+        userDto.setFullName("\tcmd");
+        userDto.setEmail("@SUM(A1)");
+        userDto.setMobileNumber("+91 12345 67890");
+        userDto.setCreatedBy("\r-1");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        userExportService.exportUsers("USER", true, Format.CSV, out);
+
+        assertEquals("userName,email,fullName,mobileNumber,role,userStatus,createdOn,createdBy,updatedOn,updatedBy\n"
+                        + "testuser,'@SUM(A1),'\tcmd,+91 12345 67890,USER,,,\"'\r-1\",,\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,133 @@
+package com.smartim.userservice.service.serviceimpl;
+
+import com.smartim.userservice.contants.UserConstants;
+import com.smartim.userservice.dto.UserDto;
+import com.smartim.userservice.entity.User;
+import com.smartim.userservice.mapper.UserMapper;
+import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.repository.projection.UserListView;
+import com.smartim.userservice.repository.projection.UserView;
+import com.smartim.userservice.service.UserService;
+import com.smartim.userservice.service.shared.NegativeLookupCache;
+import com.smartim.userservice.util.JwtUtil;
+import com.smartim.userservice.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks the caching annotations of {@link UserServiceImpl} through a Spring proxy.
+ */
+@SpringJUnitConfig(UserServiceCachingTest.Config.class)
+class UserServiceCachingTest {
+
+    @Configuration
+    @EnableCaching
+    @Import(UserServiceImpl.class)
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(UserConstants.USERS_CACHE, UserConstants.USERS_BY_EMAIL_CACHE,
+                    UserConstants.USERS_BY_ROLE_CACHE, UserConstants.USER_SEARCH_CACHE);
+        }
+    }
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private UserMapper userMapper;
+
+    @MockitoBean
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private NegativeLookupCache negativeLookupCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        user = new User();
+        user.setUserName("testuser");
+        user.setEmail("test@example.com");
+        UserDto userDto = new UserDto();
+        userDto.setUserName("testuser");
+        when(userMapper.toUserDtoFromView(any(UserView.class))).thenReturn(userDto);
+        when(userMapper.toUserDtoListFromViewList(anyList())).thenReturn(List.of(userDto));
+    }
+
+    @Test
+    void getUserByUserName_shouldLoadOnce() {
+        when(userRepository.findViewByUserName("testuser")).thenReturn(Optional.of(userView()));
+
+        UserDto first = userService.getUserByUserName("testuser");
+
+        assertSame(first, userService.getUserByUserName("testuser"));
+        verify(userRepository, times(1)).findViewByUserName("testuser");
+    }
+
+    @Test
+    void getUsersPage_shouldCacheEachPageOfEachCombinationOfFilters() {
+        doReturn(List.of(new SpelAwareProxyProjectionFactory().createProjection(UserListView.class, user)))
+                .when(userRepository).findBy(any(Specification.class), any());
+
+        userService.getUsersPage("test@example.com", null, true, null, 50, false);
+        userService.getUsersPage("test@example.com", null, true, null, 50, false);
+        userService.getUsersPage("test@example.com", "ADMIN", true, null, 50, false);
+        userService.getUsersPage("test@example.com", "ADMIN", true, KeysetCursor.encode(1L), 50, false);
+
+        verify(userRepository, times(3)).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void updateRole_shouldClearCachedLists() {
+        when(userRepository.findViewsByRole("ADMIN")).thenReturn(Optional.of(List.of(userView())));
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(user));
+        userService.getUsersByRole("ADMIN");
+        userService.getUsersByRole("ADMIN");
+
+        userService.updateRole("testuser", "ADMIN", "admin");
+        userService.getUsersByRole("ADMIN");
+
+        verify(userRepository, times(2)).findViewsByRole("ADMIN");
+    }
+
+    private UserView userView() {
+        return new SpelAwareProxyProjectionFactory().createProjection(UserView.class, user);
+    }
+}
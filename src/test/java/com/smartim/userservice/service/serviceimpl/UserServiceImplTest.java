@@ -3,11 +3,18 @@ package com.smartim.userservice.service.serviceimpl;
 import com.smartim.userservice.contants.UserConstants;
 import com.smartim.userservice.dto.*;
 import com.smartim.userservice.entity.User;
+import com.smartim.userservice.event.UserChangedEvent;
+import com.smartim.userservice.exception.RequestProcessingException;
 import com.smartim.userservice.exception.ResourceNotFoundException;
 import com.smartim.userservice.exception.UserAlreadyExistsException;
 import com.smartim.userservice.mapper.UserMapper;
 import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.repository.projection.UserListView;
+import com.smartim.userservice.repository.projection.UserView;
+import com.smartim.userservice.service.shared.NegativeLookupCache;
+import com.smartim.userservice.service.shared.NegativeLookupCache.Lookup;
 import com.smartim.userservice.util.JwtUtil;
+import com.smartim.userservice.util.KeysetCursor;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,13 +22,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -46,6 +56,12 @@ class UserServiceImplTest {
     @Mock
     private EntityManager entityManager;
 
+    @Mock
+    private NegativeLookupCache negativeLookupCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -55,6 +71,7 @@ class UserServiceImplTest {
     private LoginRequest loginRequest;
     private ResetPasswordRequest resetPasswordRequest;
     private UserDto userDto;
+    private UserView userView;
 
     private static final String USER_NAME = "test@example.com";
     private static final String PASSWORD = "encodedPassword";
@@ -74,6 +91,8 @@ class UserServiceImplTest {
         user.setRole(ROLE);
         user.setUserStatus(true);
 
+        userView = new SpelAwareProxyProjectionFactory().createProjection(UserView.class, user);
+
         userDto = new UserDto();
         userDto.setUserName(USER_NAME);
         userDto.setEmail(EMAIL);
@@ -111,6 +130,9 @@ class UserServiceImplTest {
         assertNotNull(token);
         assertEquals("mockToken", token);
         verify(userRepository, times(1)).save(user);
+        verify(negativeLookupCache).evict(Lookup.USER_NAME, USER_NAME);
+        verify(negativeLookupCache).evict(Lookup.EMAIL, EMAIL);
+        verify(negativeLookupCache).evict(Lookup.ROLE, ROLE);
     }
 
     @Test
@@ -133,6 +155,22 @@ class UserServiceImplTest {
         assertEquals(USER_NAME, result.getUserName());
         verify(userMapper, times(1)).toUserEntity(updateUserRequest, user);
         verify(userRepository, times(1)).save(user);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(USER_NAME, Set.of(EMAIL), Set.of(MOBILE_NUMBER)));
+    }
+
+    @Test
+    void updateUserProfile_PublishesPreviousAndNewIdentifiers() {
+        when(userRepository.findByUserNameAndUserStatus(USER_NAME, true)).thenReturn(Optional.of(user));
+        doAnswer(invocation -> {
+            user.setMobileNumber("0987654321");
+            return null;
+        }).when(userMapper).toUserEntity(updateUserRequest, user);
+        when(userRepository.save(user)).thenReturn(user);
+
+        userService.updateUserProfile(USER_NAME, updateUserRequest);
+
+        verify(eventPublisher).publishEvent(
+                new UserChangedEvent(USER_NAME, Set.of(EMAIL), Set.of(MOBILE_NUMBER, "0987654321")));
     }
 
     @Test
@@ -154,6 +192,7 @@ class UserServiceImplTest {
         assertFalse(user.getUserStatus()); // Verify status toggled
         assertNotNull(result);
         verify(userRepository, times(1)).save(user);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(USER_NAME, Set.of(EMAIL), Set.of(MOBILE_NUMBER)));
     }
 
     @Test
@@ -174,6 +213,22 @@ class UserServiceImplTest {
 
         assertNotNull(token);
         assertEquals("mockToken", token);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void login_Success_RehashesOutdatedPassword() {
+        when(userRepository.findByUserName(USER_NAME)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password", PASSWORD)).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(PASSWORD)).thenReturn(true);
+        when(passwordEncoder.encode("password")).thenReturn("upgradedPassword");
+        when(jwtUtil.generateToken(USER_NAME, ROLE, EMAIL)).thenReturn("mockToken");
+
+        String token = userService.login(loginRequest);
+
+        assertEquals("mockToken", token);
+        assertEquals("upgradedPassword", user.getPassword());
+        verify(userRepository, times(1)).save(user);
     }
 
     @Test
@@ -181,6 +236,16 @@ class UserServiceImplTest {
         when(userRepository.findByUserName(USER_NAME)).thenReturn(Optional.empty());
 
         assertThrows(UsernameNotFoundException.class, () -> userService.login(loginRequest));
+        verify(negativeLookupCache).markMissing(Lookup.USER_NAME, USER_NAME);
+    }
+
+    @Test
+    void login_KnownMissingUser_SkipsRepository() {
+        when(negativeLookupCache.isMissing(Lookup.USER_NAME, USER_NAME)).thenReturn(true);
+
+        assertThrows(UsernameNotFoundException.class, () -> userService.login(loginRequest));
+        verify(userRepository, never()).findByUserName(anyString());
+        verify(passwordEncoder, never()).matches(any(), any());
     }
 
     @Test
@@ -193,8 +258,8 @@ class UserServiceImplTest {
 
     @Test
     void getUserByEmail_Success() {
-        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
-        when(userMapper.toUserDtoFromUser(user)).thenReturn(userDto);
+        when(userRepository.findViewByEmail(EMAIL)).thenReturn(Optional.of(userView));
+        when(userMapper.toUserDtoFromView(userView)).thenReturn(userDto);
 
         UserDto result = userService.getUserByEmail(EMAIL);
 
@@ -204,15 +269,24 @@ class UserServiceImplTest {
 
     @Test
     void getUserByEmail_NotFound() {
-        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+        when(userRepository.findViewByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserByEmail(EMAIL));
+        verify(negativeLookupCache).markMissing(Lookup.EMAIL, EMAIL);
+    }
+
+    @Test
+    void getUserByEmail_KnownMissing_SkipsRepository() {
+        when(negativeLookupCache.isMissing(Lookup.EMAIL, EMAIL)).thenReturn(true);
 
         assertThrows(ResourceNotFoundException.class, () -> userService.getUserByEmail(EMAIL));
+        verify(userRepository, never()).findViewByEmail(anyString());
     }
 
     @Test
     void getUsersByRole_Success() {
-        when(userRepository.findByRole(ROLE)).thenReturn(Optional.of(List.of(user)));
-        when(userMapper.toUserDtoListFromUserList(List.of(user))).thenReturn(List.of(userDto));
+        when(userRepository.findViewsByRole(ROLE)).thenReturn(Optional.of(List.of(userView)));
+        when(userMapper.toUserDtoListFromViewList(List.of(userView))).thenReturn(List.of(userDto));
 
         List<UserDto> result = userService.getUsersByRole(ROLE);
 
@@ -223,15 +297,32 @@ class UserServiceImplTest {
 
     @Test
     void getUsersByRole_NotFound() {
-        when(userRepository.findByRole(ROLE)).thenReturn(Optional.empty());
+        when(userRepository.findViewsByRole(ROLE)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> userService.getUsersByRole(ROLE));
     }
 
+    @Test
+    void getUsersByRole_UnknownRole_IsCachedAsMissing() {
+        when(userRepository.findViewsByRole(ROLE)).thenReturn(Optional.of(List.of()));
+        when(userMapper.toUserDtoListFromViewList(List.of())).thenReturn(List.of());
+
+        assertTrue(userService.getUsersByRole(ROLE).isEmpty());
+        verify(negativeLookupCache).markMissing(Lookup.ROLE, ROLE);
+    }
+
+    @Test
+    void getUsersByRole_KnownMissing_SkipsRepository() {
+        when(negativeLookupCache.isMissing(Lookup.ROLE, ROLE)).thenReturn(true);
+
+        assertTrue(userService.getUsersByRole(ROLE).isEmpty());
+        verify(userRepository, never()).findViewsByRole(anyString());
+    }
+
     @Test
     void getUserByUserName_Success() {
-        when(userRepository.findByUserName(USER_NAME)).thenReturn(Optional.of(user));
-        when(userMapper.toUserDtoFromUser(user)).thenReturn(userDto);
+        when(userRepository.findViewByUserName(USER_NAME)).thenReturn(Optional.of(userView));
+        when(userMapper.toUserDtoFromView(userView)).thenReturn(userDto);
 
         UserDto result = userService.getUserByUserName(USER_NAME);
 
@@ -241,22 +332,67 @@ class UserServiceImplTest {
 
     @Test
     void getUserByUserName_NotFound() {
-        when(userRepository.findByUserName(USER_NAME)).thenReturn(Optional.empty());
+        when(userRepository.findViewByUserName(USER_NAME)).thenReturn(Optional.empty());
 
         assertThrows(UsernameNotFoundException.class, () -> userService.getUserByUserName(USER_NAME));
+        verify(negativeLookupCache).markMissing(Lookup.USER_NAME, USER_NAME);
     }
 
     @Test
-    void getUsersWithFilters() {
-        List<User> userList = List.of(user);
-        when(userRepository.findAll(any(Specification.class))).thenReturn(userList);
-        when(userMapper.toUserDtoListFromUserList(userList)).thenReturn(List.of(userDto));
+    void getUsersPage_ShouldReturnCursorOfNextPage_WhenMoreUsersMatch() {
+        User next = new User();
+        next.setId(2L);
+        UserListView first = listView(user);
+        doReturn(List.of(first, listView(next))).when(userRepository).findBy(any(Specification.class), any());
+        when(userMapper.toUserDtoFromView(first)).thenReturn(userDto);
+
+        UserPageDto result = userService.getUsersPage(EMAIL, ROLE, true, null, 1, false);
+
+        assertEquals(List.of(userDto), result.getUsers());
+        assertEquals(1L, KeysetCursor.decode(result.getNextCursor()));
+        assertNull(result.getTotalEstimate());
+        verify(userRepository, never()).count(any(Specification.class));
+    }
 
-        List<UserDto> result = userService.getUsersWithFilters(EMAIL, ROLE, true);
+    @Test
+    void getUsersPage_ShouldEndListing_OnLastPage() {
+        UserListView only = listView(user);
+        doReturn(List.of(only)).when(userRepository).findBy(any(Specification.class), any());
+        when(userMapper.toUserDtoFromView(only)).thenReturn(userDto);
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(userRepository, times(1)).findAll(any(Specification.class));
+        UserPageDto result = userService.getUsersPage(null, ROLE, null, KeysetCursor.encode(0L), 50, true);
+
+        assertNull(result.getNextCursor());
+        assertNull(result.getTotalEstimate());
+    }
+
+    @Test
+    void getUsersPage_ShouldCountMatchingUsers_OnFilteredFirstPage() {
+        doReturn(List.of(listView(user))).when(userRepository).findBy(any(Specification.class), any());
+        when(userRepository.count(any(Specification.class))).thenReturn(1L);
+
+        UserPageDto result = userService.getUsersPage(null, ROLE, null, null, 50, true);
+
+        assertEquals(1L, result.getTotalEstimate());
+        verify(userRepository, never()).estimateCount();
+    }
+
+    @Test
+    void getUsersPage_ShouldEstimateAllUsers_FromTableStatistics() {
+        doReturn(List.of(listView(user))).when(userRepository).findBy(any(Specification.class), any());
+        when(userRepository.estimateCount()).thenReturn(Optional.of(1000L));
+
+        UserPageDto result = userService.getUsersPage(null, null, null, null, 50, true);
+
+        assertEquals(1000L, result.getTotalEstimate());
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void getUsersPage_ShouldRejectMalformedCursor() {
+        assertThrows(RequestProcessingException.class,
+                () -> userService.getUsersPage(null, null, null, "not-a-cursor", 50, false));
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -267,6 +403,8 @@ class UserServiceImplTest {
 
         assertEquals("ADMIN", user.getRole());
         verify(userRepository, times(1)).save(user);
+        verify(negativeLookupCache).evict(Lookup.ROLE, "ADMIN");
+        verify(eventPublisher).publishEvent(any(UserChangedEvent.class));
     }
 
     @Test
@@ -283,6 +421,7 @@ class UserServiceImplTest {
         userService.deleteUser(USER_NAME);
 
         verify(entityManager, times(1)).remove(user);
+        verify(eventPublisher).publishEvent(new UserChangedEvent(USER_NAME, Set.of(EMAIL), Set.of(MOBILE_NUMBER)));
     }
 
     @Test
@@ -303,6 +442,7 @@ class UserServiceImplTest {
         assertEquals(UserConstants.PASSWORD_RESET_SUCCESSFULLY, result);
         assertEquals("newEncodedPassword", user.getPassword());
         verify(userRepository, times(1)).save(user);
+        verify(eventPublisher).publishEvent(any(UserChangedEvent.class));
     }
 
     @Test
@@ -326,4 +466,8 @@ class UserServiceImplTest {
 
         assertThrows(UsernameNotFoundException.class, () -> userService.resetUserPassword(resetPasswordRequest));
     }
-}
\ No newline at end of file
+
+    private static UserListView listView(User user) {
+        return new SpelAwareProxyProjectionFactory().createProjection(UserListView.class, user);
+    }
+}
@@ -0,0 +1,78 @@
+package com.smartim.userservice.service.serviceimpl;
+
+import com.smartim.userservice.dto.UserPageDto;
+import com.smartim.userservice.entity.User;
+import com.smartim.userservice.mapper.UserMapper;
+import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.service.UserService;
+import com.smartim.userservice.service.shared.NegativeLookupCache;
+import com.smartim.userservice.util.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the transactional read paths of {@link UserServiceImpl} against H2, in transactions committed by the service
+ * itself rather than rolled back by the test.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(UserServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserServiceTransactionTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private UserMapper userMapper;
+
+    @MockitoBean
+    private NegativeLookupCache negativeLookupCache;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUserName("testuser");
+        user.setEmail("test@example.com");
+        user.setMobileNumber("1234567890");
+        user.setRole("USER");
+        user.setUserStatus(true);
+        user.setCreatedBy("testuser");
+        user.setCreatedOn(LocalDateTime.now());
+        userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getUsersPage_shouldCountUsers_whenTableStatisticsAreUnavailable() {
+        UserPageDto page = userService.getUsersPage(null, null, null, null, 20, true);
+
+        assertEquals(1L, page.getTotalEstimate());
+    }
+}
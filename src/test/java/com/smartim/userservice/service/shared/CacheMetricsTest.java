@@ -0,0 +1,74 @@
+package com.smartim.userservice.service.shared;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CacheMetrics cacheMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheMetrics = new CacheMetrics(meterRegistry);
+    }
+
+    @Test
+    void keyspace_shouldReturnKnownPrefix_orOther() {
+        assertEquals("users_name_", cacheMetrics.keyspace("users_name_john_doe"));
+        assertEquals("user_email_", cacheMetrics.keyspace("user_email_john@example.com"));
+        assertEquals("user_addresses_", cacheMetrics.keyspace("user_addresses_john"));
+        assertEquals("other", cacheMetrics.keyspace("ADMIN"));
+    }
+
+    @Test
+    void stats_shouldAggregateMetersPerKeyspace() {
+        cacheMetrics.hit("users_name_a", CacheMetrics.REDIS);
+        cacheMetrics.hit("users_name_b", CacheMetrics.LOCAL);
+        cacheMetrics.miss("users_name_c");
+        cacheMetrics.miss("users_name_d");
+        cacheMetrics.recordLoad("users_name_c", TimeUnit.MILLISECONDS.toNanos(8));
+        cacheMetrics.recordLoad("users_name_d", TimeUnit.MILLISECONDS.toNanos(4));
+        cacheMetrics.recordEncode("users_name_c", 1_000, 100);
+        cacheMetrics.recordDecode("users_name_a", 2_000, 50);
+        cacheMetrics.error("users_name_a", "read");
+
+        CacheMetrics.KeyspaceStats stats = cacheMetrics.stats().get("users_name_");
+
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.localHits());
+        assertEquals(2, stats.misses());
+        assertEquals(0.5, stats.hitRatio());
+        assertEquals(1, stats.errors());
+        assertEquals(2, stats.loads());
+        assertEquals(6.0, stats.meanLoadMs(), 0.001);
+        assertEquals(100.0, stats.meanWriteBytes());
+        assertEquals(50.0, stats.meanReadBytes());
+        assertEquals(2, meterRegistry.get("cache.keyspace.gets").tag("keyspace", "users_name_")
+                .tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void error_withSeveralKeys_shouldCountOncePerKeyspace() {
+        cacheMetrics.error(List.of("users_name_a", "user_email_a", "user_email_b"), "delete");
+
+        assertEquals(1, meterRegistry.get("cache.keyspace.errors").tag("keyspace", "users_name_")
+                .counter().count());
+        assertEquals(1, meterRegistry.get("cache.keyspace.errors").tag("keyspace", "user_email_")
+                .counter().count());
+    }
+
+    @Test
+    void stats_shouldOnlyListUsedKeyspaces() {
+        cacheMetrics.miss("user_addresses_a");
+
+        assertEquals(List.of("user_addresses_"), List.copyOf(cacheMetrics.stats().keySet()));
+    }
+}
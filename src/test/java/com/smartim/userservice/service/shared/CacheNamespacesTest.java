@@ -0,0 +1,123 @@
+package com.smartim.userservice.service.shared;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheNamespacesTest {
+
+    @Mock
+    private RedisService redisService;
+
+    private CacheNamespaces cacheNamespaces;
+
+    @BeforeEach
+    void setUp() {
+        cacheNamespaces = new CacheNamespaces(redisService, "2");
+    }
+
+    @Test
+    void key_shouldEmbedSchemaVersionAndGeneration() {
+        when(redisService.getCounter("cache_generation_users_name_")).thenReturn(7L);
+
+        assertEquals("users_name_2.7:john", cacheNamespaces.key("users_name_", "john"));
+    }
+
+    @Test
+    void key_shouldStartAtGenerationZero_andResolveLocally() {
+        assertEquals("users_name_2.0:", cacheNamespaces.prefix("users_name_"));
+        assertEquals("users_name_2.0:john", cacheNamespaces.key("users_name_", "john"));
+
+        verify(redisService, times(1)).getCounter("cache_generation_users_name_");
+    }
+
+    @Test
+    void bump_shouldMoveToNewGeneration_andNotifyOtherNodes() {
+        when(redisService.increment("cache_generation_user_email_")).thenReturn(1L);
+
+        assertEquals(1L, cacheNamespaces.bump("user_email_"));
+
+        assertEquals("user_email_2.1:a@example.com", cacheNamespaces.key("user_email_", "a@example.com"));
+        verify(redisService).publish("cache_generation", "user_email_");
+        verify(redisService, never()).getCounter(anyString());
+    }
+
+    @Test
+    void onGenerationChange_shouldReloadGeneration() {
+        when(redisService.getCounter("cache_generation_users_name_")).thenReturn(0L, 4L);
+        cacheNamespaces.prefix("users_name_");
+
+        cacheNamespaces.onGenerationChange("users_name_");
+
+        assertEquals("users_name_2.4:", cacheNamespaces.prefix("users_name_"));
+    }
+
+    @Test
+    void refresh_shouldKeepKnownGeneration_whenRedisFails() {
+        when(redisService.getCounter("cache_generation_users_name_"))
+                .thenReturn(3L)
+                .thenThrow(new RedisConnectionFailureException("down"));
+        cacheNamespaces.prefix("users_name_");
+
+        cacheNamespaces.refresh();
+
+        assertEquals("users_name_2.3:", cacheNamespaces.prefix("users_name_"));
+    }
+
+    @Test
+    void refresh_shouldNotMoveBackwards_whenReloadReadsAnOlderGeneration() {
+        when(redisService.getCounter("cache_generation_users_name_")).thenReturn(3L);
+        when(redisService.increment("cache_generation_users_name_")).thenReturn(4L);
+        when(redisService.execute(any(), eq(List.of("cache_generation_users_name_")), eq("4"))).thenReturn(4L);
+        cacheNamespaces.prefix("users_name_");
+        cacheNamespaces.bump("users_name_");
+
+        cacheNamespaces.refresh();
+
+        assertEquals("users_name_2.4:", cacheNamespaces.prefix("users_name_"));
+    }
+
+    @Test
+    void refresh_shouldRestoreCounter_whenRedisWasReset() {
+        when(redisService.getCounter("cache_generation_users_name_")).thenReturn(5L, (Long) null);
+        when(redisService.execute(any(), eq(List.of("cache_generation_users_name_")), eq("5"))).thenReturn(5L);
+        cacheNamespaces.prefix("users_name_");
+
+        cacheNamespaces.refresh();
+
+        assertEquals("users_name_2.5:", cacheNamespaces.prefix("users_name_"));
+    }
+
+    @Test
+    void bump_shouldMovePastKnownGeneration_whenRedisWasReset() {
+        when(redisService.getCounter("cache_generation_users_name_")).thenReturn(5L);
+        when(redisService.increment("cache_generation_users_name_")).thenReturn(1L);
+        when(redisService.execute(any(), eq(List.of("cache_generation_users_name_")), eq("6"))).thenReturn(6L);
+        cacheNamespaces.prefix("users_name_");
+
+        assertEquals(6L, cacheNamespaces.bump("users_name_"));
+
+        assertEquals("users_name_2.6:", cacheNamespaces.prefix("users_name_"));
+    }
+
+    @Test
+    void onGenerationChange_shouldFollowRedis_whenCounterMovedForward() {
+        when(redisService.getCounter("cache_generation_users_name_")).thenReturn(2L, 9L);
+        cacheNamespaces.prefix("users_name_");
+
+        cacheNamespaces.onGenerationChange("users_name_");
+
+        assertEquals("users_name_2.9:", cacheNamespaces.prefix("users_name_"));
+        verify(redisService, never()).execute(any(), anyList(), any());
+    }
+}
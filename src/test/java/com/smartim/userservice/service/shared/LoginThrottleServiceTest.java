@@ -0,0 +1,116 @@
+package com.smartim.userservice.service.shared;
+
+import com.smartim.userservice.exception.LoginThrottledException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoginThrottleServiceTest {
+
+    @Mock
+    private RedisService redisService;
+
+    private LoginThrottleService loginThrottleService;
+
+    @BeforeEach
+    void setUp() {
+        loginThrottleService = new LoginThrottleService(redisService, 300, 3, 20, 30, 3600);
+    }
+
+    @Test
+    void checkAllowed_shouldPass_whenNoLockoutInRedis() {
+        when(redisService.remainingTimesToLive(List.of("login_{user_testuser}_lock", "login_{ip_10.0.0.1}_lock")))
+                .thenReturn(List.of(-2L, -2L));
+
+        assertDoesNotThrow(() -> loginThrottleService.checkAllowed("testuser", "10.0.0.1"));
+    }
+
+    @Test
+    void checkAllowed_shouldThrow_whenLockedOutInRedis() {
+        when(redisService.remainingTimesToLive(anyList())).thenReturn(List.of(-2L, 12_500L));
+
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> loginThrottleService.checkAllowed("testuser", "10.0.0.1"));
+        assertEquals(13, exception.getRetryAfterSeconds());
+    }
+
+    @Test
+    void checkAllowed_shouldUseLocalLockout_withoutCallingRedis() {
+        when(redisService.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(30_000L);
+        loginThrottleService.recordFailure("testuser", "10.0.0.1");
+        clearInvocations(redisService);
+
+        assertThrows(LoginThrottledException.class,
+                () -> loginThrottleService.checkAllowed("TestUser", "10.0.0.2"));
+        verifyNoInteractions(redisService);
+    }
+
+    @Test
+    void recordFailure_shouldCountUserAndClient() {
+        when(redisService.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        loginThrottleService.recordFailure("testuser", "10.0.0.1");
+
+        verify(redisService).execute(any(RedisScript.class),
+                eq(List.of("login_{user_testuser}_fail", "login_{user_testuser}_lock")), any(Object[].class));
+        verify(redisService).execute(any(RedisScript.class),
+                eq(List.of("login_{ip_10.0.0.1}_fail", "login_{ip_10.0.0.1}_lock")), any(Object[].class));
+    }
+
+    @Test
+    void recordFailure_shouldOnlyCountUser_whenClientIsUnknown() {
+        when(redisService.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+        when(redisService.remainingTimesToLive(anyList())).thenReturn(List.of(-2L));
+
+        loginThrottleService.recordFailure("testuser", null);
+        loginThrottleService.checkAllowed("testuser", null);
+
+        verify(redisService).execute(any(RedisScript.class),
+                eq(List.of("login_{user_testuser}_fail", "login_{user_testuser}_lock")), any(Object[].class));
+        verify(redisService).remainingTimesToLive(List.of("login_{user_testuser}_lock"));
+        verifyNoMoreInteractions(redisService);
+    }
+
+    @Test
+    void recordFailure_shouldLockOutLocally_whenRedisIsUnavailable() {
+        when(redisService.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(redisService.remainingTimesToLive(anyList()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        for (int i = 0; i < 2; i++) {
+            loginThrottleService.recordFailure("testuser", "10.0.0.1");
+            assertDoesNotThrow(() -> loginThrottleService.checkAllowed("testuser", "10.0.0.1"));
+        }
+        loginThrottleService.recordFailure("testuser", "10.0.0.1");
+
+        LoginThrottledException exception = assertThrows(LoginThrottledException.class,
+                () -> loginThrottleService.checkAllowed("testuser", "10.0.0.1"));
+        assertEquals(30, exception.getRetryAfterSeconds());
+    }
+
+    @Test
+    void recordSuccess_shouldClearUserFailures() {
+        when(redisService.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(30_000L);
+        loginThrottleService.recordFailure("testuser", "10.0.0.1");
+
+        loginThrottleService.recordSuccess("testuser");
+
+        verify(redisService).deleteAll(List.of("login_{user_testuser}_fail", "login_{user_testuser}_lock"));
+        when(redisService.remainingTimesToLive(anyList())).thenReturn(List.of(-2L, -2L));
+        assertThrows(LoginThrottledException.class,
+                () -> loginThrottleService.checkAllowed("testuser", "10.0.0.1"));
+        assertDoesNotThrow(() -> loginThrottleService.checkAllowed("testuser", "10.0.0.2"));
+    }
+}
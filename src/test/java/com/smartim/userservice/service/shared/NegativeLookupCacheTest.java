@@ -0,0 +1,62 @@
+package com.smartim.userservice.service.shared;
+
+import com.smartim.userservice.service.shared.NegativeLookupCache.Lookup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NegativeLookupCacheTest {
+
+    @Mock
+    private RedisService redisService;
+
+    private NegativeLookupCache negativeLookupCache;
+
+    @BeforeEach
+    void setUp() {
+        negativeLookupCache = new NegativeLookupCache(redisService, 30, 100);
+    }
+
+    @Test
+    void markMissing_shouldBeScopedToLookup() {
+        negativeLookupCache.markMissing(Lookup.EMAIL, "test@example.com");
+
+        assertTrue(negativeLookupCache.isMissing(Lookup.EMAIL, "test@example.com"));
+        assertFalse(negativeLookupCache.isMissing(Lookup.USER_NAME, "test@example.com"));
+    }
+
+    @Test
+    void evict_shouldForgetLocallyAndPublish() {
+        negativeLookupCache.markMissing(Lookup.USER_NAME, "testuser");
+
+        negativeLookupCache.evict(Lookup.USER_NAME, "testuser");
+
+        assertFalse(negativeLookupCache.isMissing(Lookup.USER_NAME, "testuser"));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisService).publish(eq("negative_cache_invalidation"), message.capture());
+        assertTrue(message.getValue().endsWith("|USER_NAME:testuser"));
+    }
+
+    @Test
+    void evict_shouldIgnoreNullValues() {
+        negativeLookupCache.evict(Lookup.ROLE, null);
+
+        verifyNoInteractions(redisService);
+    }
+
+    @Test
+    void onInvalidation_shouldForgetValue_fromOtherNodes() {
+        negativeLookupCache.markMissing(Lookup.USER_NAME, "testuser");
+
+        negativeLookupCache.onInvalidation("other-node|USER_NAME:testuser");
+
+        assertFalse(negativeLookupCache.isMissing(Lookup.USER_NAME, "testuser"));
+    }
+}
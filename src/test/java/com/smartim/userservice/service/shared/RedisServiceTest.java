@@ -3,17 +3,39 @@ package com.smartim.userservice.service.shared;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartim.userservice.config.UserConfig;
+import com.smartim.userservice.dto.UserDto;
+import com.smartim.userservice.exception.CacheUnavailableException;
+import com.smartim.userservice.service.shared.codec.JsonRedisCodec;
+import com.smartim.userservice.service.shared.codec.RedisCodecs;
+import com.smartim.userservice.service.shared.codec.SmileRedisCodec;
+import com.smartim.userservice.util.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 
-import java.util.Collections;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,38 +47,75 @@ class RedisServiceTest {
     private RedisTemplate<String, String> redisTemplate;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private RedisTemplate<String, byte[]> binaryRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, byte[]> valueOperations;
+
+    private RedisCodecs codecs;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CircuitBreaker circuitBreaker;
 
-    @InjectMocks
     private RedisService redisService;
 
-    @Mock
-    private ValueOperations<String, String> valueOperations;
+    private List<Runnable> backgroundTasks;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new UserConfig().objectMapper();
+        codecs = new RedisCodecs(List.of(new JsonRedisCodec(objectMapper), new SmileRedisCodec(objectMapper)),
+                "smile", 1024);
+        circuitBreaker = new CircuitBreaker("redis", 50, 4, 2, 1_000, 60_000, 1, Clock.systemUTC());
+        backgroundTasks = new ArrayList<>();
+        redisService = new RedisService(redisTemplate, binaryRedisTemplate, codecs, new CacheMetrics(meterRegistry),
+                circuitBreaker, backgroundTasks::add);
+    }
 
     @Test
     void get_withClass_shouldReturnObject_whenKeyExists() throws JsonProcessingException {
         // Given
         String key = "testKey";
-        String json = "{\"field\":\"value\"}";
-        TestObject expectedObject = new TestObject("value");
+        byte[] value = codecs.encode(new TestObject("value"));
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(key)).thenReturn(json);
-        when(objectMapper.readValue(json, TestObject.class)).thenReturn(expectedObject);
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(key)).thenReturn(value);
 
         // When
         TestObject result = redisService.get(key, TestObject.class);
 
         // Then
         assertNotNull(result);
-        assertEquals(expectedObject.getField(), result.getField());
+        assertEquals("value", result.field());
+        assertEquals(1, meterRegistry.get("cache.keyspace.gets").tag("keyspace", "other")
+                .tag("result", "hit").counter().count());
+        assertEquals(value.length, meterRegistry.get("cache.keyspace.payload").tag("operation", "read")
+                .summary().totalAmount());
+    }
+
+    @Test
+    void get_withClass_shouldReadLegacyJsonEntries() throws JsonProcessingException {
+        // Given
+        String key = "testKey";
+        byte[] json = "{\n  \"field\" : \"value\"\n}".getBytes(StandardCharsets.UTF_8);
+
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(key)).thenReturn(json);
+
+        // When
+        TestObject result = redisService.get(key, TestObject.class);
+
+        // Then
+        assertEquals("value", result.field());
     }
 
     @Test
     void get_withClass_shouldReturnNull_whenKeyDoesNotExist() throws JsonProcessingException {
         // Given
         String key = "nonExistentKey";
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
         when(valueOperations.get(key)).thenReturn(null);
 
         // When
@@ -64,19 +123,73 @@ class RedisServiceTest {
 
         // Then
         assertNull(result);
+        assertEquals(1, meterRegistry.get("cache.keyspace.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void get_shouldCountError_whenRedisFails() {
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("users_name_test")).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThrows(RedisConnectionFailureException.class, () -> redisService.get("users_name_test", TestObject.class));
+        assertEquals(1, meterRegistry.get("cache.keyspace.errors").tag("keyspace", "users_name_")
+                .tag("operation", "read").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_shouldRunScriptThroughCircuitBreaker() {
+        RedisScript<Long> script = RedisScript.of("return 1", Long.class);
+        when(redisTemplate.execute(eq(script), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        assertThrows(RedisConnectionFailureException.class, () -> redisService.execute(script, List.of("key"), "a"));
+        assertThrows(RedisConnectionFailureException.class, () -> redisService.execute(script, List.of("key"), "a"));
+
+        assertThrows(CacheUnavailableException.class, () -> redisService.execute(script, List.of("key"), "a"));
+
+        verify(redisTemplate, times(2)).execute(eq(script), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void remainingTimesToLive_shouldPipelineOnePttlPerKey() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(-2L, 12_500L));
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+
+        assertEquals(List.of(-2L, 12_500L), redisService.remainingTimesToLive(List.of("key1", "key2")));
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).executePipelined(callback.capture());
+        callback.getValue().doInRedis(connection);
+        verify(keyCommands).pTtl("key1".getBytes(StandardCharsets.UTF_8));
+        verify(keyCommands).pTtl("key2".getBytes(StandardCharsets.UTF_8));
+        verifyNoMoreInteractions(keyCommands);
+    }
+
+    @Test
+    void get_shouldFailFast_whenCircuitBreakerIsOpen() {
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("users_name_test")).thenThrow(new RedisConnectionFailureException("down"));
+        assertThrows(RedisConnectionFailureException.class, () -> redisService.get("users_name_test", TestObject.class));
+        assertThrows(RedisConnectionFailureException.class, () -> redisService.get("users_name_test", TestObject.class));
+
+        assertThrows(CacheUnavailableException.class, () -> redisService.get("users_name_test", TestObject.class));
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        verify(valueOperations, times(2)).get("users_name_test");
     }
 
     @Test
     void get_withTypeReference_shouldReturnObject_whenKeyExists() throws JsonProcessingException {
         // Given
         String key = "testKey";
-        String json = "[{\"field\":\"value\"}]";
-        List<TestObject> expectedList = Collections.singletonList(new TestObject("value"));
+        byte[] value = codecs.encode(List.of(new TestObject("value")));
         TypeReference<List<TestObject>> typeReference = new TypeReference<>() {};
 
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.get(key)).thenReturn(json);
-        when(objectMapper.readValue(json, typeReference)).thenReturn(expectedList);
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(key)).thenReturn(value);
 
         // When
         List<TestObject> result = redisService.get(key, typeReference);
@@ -84,37 +197,237 @@ class RedisServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals("value", result.get(0).getField());
+        assertEquals("value", result.get(0).field());
     }
 
     @Test
-    void set_shouldStoreObjectInRedis() throws JsonProcessingException {
+    void set_shouldStoreEncodedObjectInRedis() throws JsonProcessingException {
         // Given
         String key = "testKey";
         TestObject obj = new TestObject("value");
-        String json = "{\"field\":\"value\"}";
         long ttl = 3600L;
 
-        when(objectMapper.writeValueAsString(obj)).thenReturn(json);
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
 
         // When
         redisService.set(key, obj, ttl);
 
         // Then
-        verify(valueOperations).set(key, json, ttl, TimeUnit.SECONDS);
+        ArgumentCaptor<byte[]> value = ArgumentCaptor.forClass(byte[].class);
+        verify(valueOperations).set(eq(key), value.capture(), eq(ttl), eq(TimeUnit.SECONDS));
+        assertEquals(':', value.getValue()[0]);
+        assertEquals(obj, codecs.decode(value.getValue(), TestObject.class));
     }
 
-    // Helper class for testing
-    private static class TestObject {
-        private String field;
+    @Test
+    void get_shouldReadLegacyUserEntry_asEnvelopeWithoutValue() throws JsonProcessingException {
+        byte[] legacy = """
+                {
+                  "email" : "test@example.com",
+                  "fullName" : "Test User",
+                  "mobileNumber" : "+911234567890",
+                  "userStatus" : true,
+                  "role" : "USER",
+                  "userName" : "testuser",
+                  "createdOn" : "2024-01-01T10:00:00",
+                  "createdBy" : "testuser"
+                }""".getBytes(StandardCharsets.UTF_8);
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("users_name_testuser")).thenReturn(legacy);
 
-        public TestObject(String field) {
-            this.field = field;
-        }
+        CacheEnvelope<UserDto> envelope = redisService.get("users_name_testuser",
+                new TypeReference<CacheEnvelope<UserDto>>() {});
+
+        assertNotNull(envelope);
+        assertNull(envelope.value());
+    }
+
+    @Test
+    void getViaAlias_shouldReturnCanonicalObject_whenAliasResolves() throws JsonProcessingException {
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("aliasKey")).thenReturn("id".getBytes(StandardCharsets.UTF_8));
+        when(valueOperations.get("prefix_id")).thenReturn(codecs.encode(new TestObject("value")));
+
+        TestObject result = redisService.getViaAlias("aliasKey", "prefix_", TestObject.class);
+
+        assertEquals(new TestObject("value"), result);
+    }
+
+    @Test
+    void getViaAlias_shouldReturnNull_whenAliasDoesNotResolve() throws JsonProcessingException {
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("aliasKey")).thenReturn(null);
+
+        assertNull(redisService.getViaAlias("aliasKey", "prefix_", TestObject.class));
+        verify(valueOperations, times(1)).get(anyString());
+    }
+
+    @Test
+    void getViaAlias_withTypeReference_shouldReturnCanonicalObject() throws JsonProcessingException {
+        TypeReference<List<TestObject>> typeReference = new TypeReference<>() {};
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("aliasKey")).thenReturn("id".getBytes(StandardCharsets.UTF_8));
+        when(valueOperations.get("prefix_id")).thenReturn(codecs.encode(List.of(new TestObject("value"))));
 
-        public String getField() {
-            return field;
+        assertEquals(List.of(new TestObject("value")), redisService.getViaAlias("aliasKey", "prefix_", typeReference));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void setWithAliases_shouldPipelineCanonicalKeyAndAliases() throws JsonProcessingException {
+        TestObject obj = new TestObject("value");
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+
+        redisService.setWithAliases("prefix_", "id", obj, List.of("alias1", "alias2"), 300L);
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(binaryRedisTemplate).executePipelined(callback.capture());
+        callback.getValue().doInRedis(connection);
+        ArgumentCaptor<byte[]> value = ArgumentCaptor.forClass(byte[].class);
+        verify(stringCommands).set(eq("prefix_id".getBytes(StandardCharsets.UTF_8)), value.capture(),
+                eq(Expiration.seconds(300)), eq(RedisStringCommands.SetOption.upsert()));
+        assertEquals(obj, codecs.decode(value.getValue(), TestObject.class));
+        for (String alias : List.of("alias1", "alias2")) {
+            verify(stringCommands).set(alias.getBytes(StandardCharsets.UTF_8), "id".getBytes(StandardCharsets.UTF_8),
+                    Expiration.seconds(300), RedisStringCommands.SetOption.upsert());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void multiGet_withClass_shouldReturnFoundObjectsByKey() throws JsonProcessingException {
+        List<String> keys = List.of("key1", "key2", "key3");
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(keys)).thenReturn(Arrays.asList(
+                codecs.encode(new TestObject("value1")), null, codecs.encode(new TestObject("value3"))));
+
+        Map<String, TestObject> result = redisService.multiGet(keys, TestObject.class);
+
+        assertEquals(List.of("key1", "key3"), List.copyOf(result.keySet()));
+        assertEquals(new TestObject("value1"), result.get("key1"));
+        assertEquals(new TestObject("value3"), result.get("key3"));
+    }
+
+    @Test
+    void multiGet_withTypeReference_shouldReturnFoundObjectsByKey() throws JsonProcessingException {
+        List<String> keys = List.of("key1");
+        TypeReference<List<TestObject>> typeReference = new TypeReference<>() {};
+        when(binaryRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(keys)).thenReturn(List.of(codecs.encode(List.of(new TestObject("value")))));
+
+        Map<String, List<TestObject>> result = redisService.multiGet(keys, typeReference);
+
+        assertEquals(Map.of("key1", List.of(new TestObject("value"))), result);
+    }
+
+    @Test
+    void multiGet_shouldNotCallRedis_whenNoKeys() throws JsonProcessingException {
+        assertTrue(redisService.multiGet(List.of(), TestObject.class).isEmpty());
+
+        verifyNoInteractions(binaryRedisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void multiSet_shouldPipelineOneSetPerKeyWithItsTimeToLive() throws JsonProcessingException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("key1", new TestObject("value1"));
+        values.put("key2", new TestObject("value2"));
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+
+        redisService.multiSet(values, key -> key.equals("key1") ? 60L : 120L);
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(binaryRedisTemplate).executePipelined(callback.capture());
+        callback.getValue().doInRedis(connection);
+        ArgumentCaptor<byte[]> value = ArgumentCaptor.forClass(byte[].class);
+        verify(stringCommands).set(eq("key1".getBytes(StandardCharsets.UTF_8)), value.capture(),
+                eq(Expiration.seconds(60)), eq(RedisStringCommands.SetOption.upsert()));
+        assertEquals(new TestObject("value1"), codecs.decode(value.getValue(), TestObject.class));
+        verify(stringCommands).set(eq("key2".getBytes(StandardCharsets.UTF_8)), any(byte[].class),
+                eq(Expiration.seconds(120)), eq(RedisStringCommands.SetOption.upsert()));
+    }
+
+    @Test
+    void multiSet_shouldNotCallRedis_whenNoValues() throws JsonProcessingException {
+        redisService.multiSet(Map.of(), 60L);
+
+        verifyNoInteractions(binaryRedisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteAll_shouldPipelineUnlinksInBatches() {
+        List<String> keys = IntStream.range(0, 501).mapToObj(i -> "key" + i).toList();
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+
+        redisService.deleteAll(keys);
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(binaryRedisTemplate).executePipelined(callback.capture());
+        callback.getValue().doInRedis(connection);
+        ArgumentCaptor<byte[][]> batches = ArgumentCaptor.forClass(byte[][].class);
+        verify(keyCommands, times(2)).unlink(batches.capture());
+        List<byte[][]> unlinked = batches.getAllValues();
+        assertEquals(500, unlinked.get(0).length);
+        assertEquals(1, unlinked.get(1).length);
+        assertArrayEquals("key500".getBytes(StandardCharsets.UTF_8), unlinked.get(1)[0]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteAll_shouldDeleteFailedKeysInBackground_afterNextSuccessfulCall() {
+        when(binaryRedisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(List.of());
+
+        assertDoesNotThrow(() -> redisService.deleteAll(List.of("users_name_test")));
+        redisService.publish("channel", "message");
+
+        verify(binaryRedisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        assertEquals(1, backgroundTasks.size());
+        redisService.publish("channel", "message");
+        assertEquals(1, backgroundTasks.size());
+
+        backgroundTasks.get(0).run();
+
+        verify(binaryRedisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+        redisService.publish("channel", "message");
+        assertEquals(1, backgroundTasks.size());
+    }
+
+    @Test
+    void deleteAll_shouldNotCallRedis_whenNoKeys() {
+        redisService.deleteAll(List.of());
+
+        verifyNoInteractions(binaryRedisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void increment_andGetCounter_shouldUseStringTemplate() {
+        ValueOperations<String, String> stringOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(stringOperations);
+        when(stringOperations.increment("counter")).thenReturn(3L);
+        when(stringOperations.get("counter")).thenReturn("3");
+
+        assertEquals(3L, redisService.increment("counter"));
+        assertEquals(3L, redisService.getCounter("counter"));
+    }
+
+    @Test
+    void publish_shouldSendMessageOnChannel() {
+        redisService.publish("channel", "message");
+
+        verify(redisTemplate).convertAndSend("channel", "message");
+    }
+
+    // Helper type for testing
+    record TestObject(String field) {
+    }
+}
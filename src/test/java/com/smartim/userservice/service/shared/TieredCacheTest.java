@@ -0,0 +1,134 @@
+package com.smartim.userservice.service.shared;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.smartim.userservice.exception.CacheUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TieredCacheTest {
+
+    private static final String KEY = "users_role_1.0:ADMIN";
+    private static final List<String> VALUE = List.of("john", "jane");
+
+    @Mock
+    private RedisService redisService;
+
+    private TieredCache tieredCache;
+
+    @BeforeEach
+    void setUp() {
+        tieredCache = new TieredCache("usersByRole", "users_role_", new TypeReference<List<String>>() {}, 300,
+                100, 60, redisService, new CacheNamespaces(redisService, "1"),
+                new CacheMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void get_shouldServeFromLocalTier_afterRedisHit() throws JsonProcessingException {
+        when(redisService.get(eq(KEY), any(TypeReference.class))).thenReturn(VALUE);
+
+        assertEquals(VALUE, tieredCache.get("ADMIN").get());
+        assertEquals(VALUE, tieredCache.get("ADMIN").get());
+
+        verify(redisService, times(1)).get(eq(KEY), any(TypeReference.class));
+    }
+
+    @Test
+    void getWithLoader_shouldLoadAndStoreInRedis_onMiss() throws JsonProcessingException {
+        assertEquals(VALUE, tieredCache.get("ADMIN", () -> VALUE));
+        assertEquals(VALUE, tieredCache.get("ADMIN", () -> {
+            throw new AssertionError("loader must not run on a hit");
+        }));
+
+        verify(redisService).set(KEY, VALUE, 300L);
+        verify(redisService, never()).publish(anyString(), anyString());
+    }
+
+    @Test
+    void getWithLoader_shouldLoad_whenRedisIsUnavailable() throws JsonProcessingException {
+        when(redisService.get(eq(KEY), any(TypeReference.class))).thenThrow(new CacheUnavailableException("open"));
+
+        assertEquals(VALUE, tieredCache.get("ADMIN", () -> VALUE));
+    }
+
+    @Test
+    void getWithLoader_shouldWrapLoaderFailure() {
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        Cache.ValueRetrievalException exception = assertThrows(Cache.ValueRetrievalException.class,
+                () -> tieredCache.get("ADMIN", () -> {
+                    throw failure;
+                }));
+
+        assertSame(failure, exception.getCause());
+    }
+
+    @Test
+    void put_shouldWriteThroughAndNotifyOtherNodes() throws JsonProcessingException {
+        tieredCache.put("ADMIN", VALUE);
+
+        verify(redisService).set(KEY, VALUE, 300L);
+        verify(redisService).publish(eq("cache_invalidation"), endsWith("|" + KEY));
+        assertEquals(VALUE, tieredCache.get("ADMIN").get());
+    }
+
+    @Test
+    void put_shouldDropRedisEntry_whenWriteFails() throws JsonProcessingException {
+        doThrow(new CacheUnavailableException("open")).when(redisService).set(KEY, VALUE, 300L);
+
+        tieredCache.put("ADMIN", VALUE);
+
+        verify(redisService).deleteAll(List.of(KEY));
+    }
+
+    @Test
+    void evict_shouldDeleteEverywhere() throws JsonProcessingException {
+        tieredCache.put("ADMIN", VALUE);
+
+        tieredCache.evict("ADMIN");
+
+        verify(redisService).deleteAll(List.of(KEY));
+        verify(redisService, times(2)).publish(eq("cache_invalidation"), endsWith("|" + KEY));
+        assertNull(tieredCache.get("ADMIN"));
+    }
+
+    @Test
+    void clear_shouldMoveToNewGeneration() throws JsonProcessingException {
+        tieredCache.put("ADMIN", VALUE);
+        when(redisService.increment("cache_generation_users_role_")).thenReturn(1L);
+
+        tieredCache.clear();
+
+        assertNull(tieredCache.get("ADMIN"));
+        verify(redisService).get(eq("users_role_1.1:ADMIN"), any(TypeReference.class));
+    }
+
+    @Test
+    void onInvalidation_shouldDropLocalCopy_fromOtherNodesOnly() throws JsonProcessingException {
+        tieredCache.put("ADMIN", VALUE);
+        ArgumentCaptor<String> ownMessage = ArgumentCaptor.forClass(String.class);
+        verify(redisService).publish(eq("cache_invalidation"), ownMessage.capture());
+
+        tieredCache.onInvalidation(ownMessage.getValue());
+        assertEquals(VALUE, tieredCache.get("ADMIN").get());
+
+        tieredCache.onInvalidation("other-node|" + KEY);
+        assertNull(tieredCache.get("ADMIN"));
+        verify(redisService).get(eq(KEY), any(TypeReference.class));
+    }
+}
@@ -0,0 +1,78 @@
+package com.smartim.userservice.service.shared;
+
+import com.smartim.userservice.contants.UserConstants;
+import com.smartim.userservice.event.UserChangedEvent;
+import com.smartim.userservice.security.UserDetailsCache;
+import com.smartim.userservice.security.UserStatusCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheMaintenanceTest {
+
+    @Mock
+    private UserCacheService userCacheService;
+
+    @Mock
+    private UserStatusCache userStatusCache;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private RedisService redisService;
+
+    @InjectMocks
+    private UserCacheMaintenance userCacheMaintenance;
+
+    @Test
+    void onUserChanged_shouldEvictProfileAliasesAndStatus() {
+        userCacheMaintenance.onUserChanged(
+                new UserChangedEvent("testuser", Set.of("test@example.com"), Set.of("9999999999")));
+
+        verify(userCacheService).evict("testuser", Set.of("test@example.com"), Set.of("9999999999"));
+        verify(userStatusCache).evict("testuser");
+        verify(userDetailsCache).removeUserFromCache("testuser");
+        verify(redisService).publish(UserConstants.USER_CHANGED_CHANNEL, "testuser");
+    }
+
+    @Test
+    void onUserChanged_shouldEvictLocally_whenPublishFails() {
+        doThrow(new IllegalStateException("down")).when(redisService)
+                .publish(UserConstants.USER_CHANGED_CHANNEL, "testuser");
+
+        userCacheMaintenance.onUserChanged(new UserChangedEvent("testuser", Set.of(), Set.of()));
+
+        verify(userStatusCache).evict("testuser");
+        verify(userDetailsCache).removeUserFromCache("testuser");
+    }
+
+    @Test
+    void onRemoteUserChanged_shouldEvictAuthenticationCaches() {
+        userCacheMaintenance.onRemoteUserChanged("testuser");
+
+        verify(userStatusCache).evict("testuser");
+        verify(userDetailsCache).removeUserFromCache("testuser");
+        verifyNoInteractions(userCacheService, redisService);
+    }
+
+    @Test
+    void onUserChanged_shouldRunAfterCommit() throws NoSuchMethodException {
+        TransactionalEventListener listener = UserCacheMaintenance.class
+                .getMethod("onUserChanged", UserChangedEvent.class)
+                .getAnnotation(TransactionalEventListener.class);
+
+        assertEquals(TransactionPhase.AFTER_COMMIT, listener.phase());
+        assertTrue(listener.fallbackExecution());
+    }
+}
@@ -0,0 +1,291 @@
+package com.smartim.userservice.service.shared;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.smartim.userservice.dto.UserDto;
+import com.smartim.userservice.entity.User;
+import com.smartim.userservice.exception.CacheUnavailableException;
+import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.util.ConcurrentCallers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheServiceTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Mock
+    private RedisService redisService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final List<Runnable> scheduledRefreshes = new ArrayList<>();
+
+    private UserCacheService userCacheService;
+
+    private UserDto userDto;
+
+    @BeforeEach
+    void setUp() {
+        userCacheService = new UserCacheService(redisService, new CacheNamespaces(redisService, "1"),
+                new CacheMetrics(new SimpleMeterRegistry()), 300, 240, 1.0, 100, 60,
+                scheduledRefreshes::add, Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+        userDto = new UserDto();
+        userDto.setUserName("testuser");
+        userDto.setEmail("test@example.com");
+        userDto.setMobileNumber("9999999999");
+    }
+
+    @Test
+    void getByUserName_shouldServeFromLocalCache_afterFirstRedisHit() throws JsonProcessingException {
+        when(redisService.get(eq("users_name_1.0:testuser"), any(TypeReference.class))).thenReturn(fresh(userDto));
+
+        assertSame(userDto, userCacheService.getByUserName("testuser"));
+        assertSame(userDto, userCacheService.getByUserName("testuser"));
+
+        verify(redisService, times(1)).get(eq("users_name_1.0:testuser"), any(TypeReference.class));
+    }
+
+    @Test
+    void getByUserName_shouldReturnNull_whenNotCached() throws JsonProcessingException {
+        assertNull(userCacheService.getByUserName("unknown"));
+        assertNull(userCacheService.getByUserName("unknown"));
+
+        verify(redisService, times(2)).get(eq("users_name_1.0:unknown"), any(TypeReference.class));
+    }
+
+    @Test
+    void getByUserName_shouldTreatEntryWithoutEnvelopeAsMiss() throws JsonProcessingException {
+        when(redisService.get(eq("users_name_1.0:testuser"), any(TypeReference.class)))
+                .thenReturn(new CacheEnvelope<>(null, 0, 0));
+
+        assertNull(userCacheService.getByUserName("testuser"));
+    }
+
+    @Test
+    void getByEmail_shouldResolveAliasInRedis_thenServeLocally() throws JsonProcessingException {
+        when(redisService.getViaAlias(eq("user_email_1.0:test@example.com"), eq("users_name_1.0:"), any(TypeReference.class)))
+                .thenReturn(fresh(userDto));
+
+        assertSame(userDto, userCacheService.getByEmail("test@example.com"));
+        assertSame(userDto, userCacheService.getByEmail("test@example.com"));
+        assertSame(userDto, userCacheService.getByUserName("testuser"));
+
+        verify(redisService, times(1)).getViaAlias(anyString(), anyString(), any(TypeReference.class));
+        verify(redisService, never()).get(anyString(), any(TypeReference.class));
+    }
+
+    @Test
+    void getByEmail_shouldReturnNull_whenAliasIsStale() throws JsonProcessingException {
+        userDto.setEmail("new@example.com");
+        when(redisService.getViaAlias(eq("user_email_1.0:old@example.com"), eq("users_name_1.0:"), any(TypeReference.class)))
+                .thenReturn(fresh(userDto));
+
+        assertNull(userCacheService.getByEmail("old@example.com"));
+    }
+
+    @Test
+    void put_shouldWriteEnvelopeWithAliases_withoutPublishing() throws JsonProcessingException {
+        userCacheService.put(userDto);
+
+        ArgumentCaptor<Object> envelope = ArgumentCaptor.forClass(Object.class);
+        verify(redisService).setWithAliases(eq("users_name_1.0:"), eq("testuser"), envelope.capture(),
+                eq(List.of("user_email_1.0:test@example.com", "user_mobile_1.0:9999999999")), eq(300L));
+        assertEquals(new CacheEnvelope<>(userDto, NOW + 240_000, 0), envelope.getValue());
+        assertSame(userDto, userCacheService.getByUserName("testuser"));
+        assertSame(userDto, userCacheService.getByEmail("test@example.com"));
+        verify(redisService, never()).get(anyString(), any(TypeReference.class));
+        verify(redisService, never()).publish(anyString(), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void putAll_shouldWriteEnvelopesWithAliasesInOneCall() throws JsonProcessingException {
+        UserDto other = new UserDto();
+        other.setUserName("otheruser");
+        other.setEmail("other@example.com");
+
+        userCacheService.putAll(List.of(userDto, other));
+
+        ArgumentCaptor<Map<String, Object>> envelopes = ArgumentCaptor.forClass(Map.class);
+        ArgumentCaptor<Map<String, List<String>>> aliases = ArgumentCaptor.forClass(Map.class);
+        verify(redisService).multiSetWithAliases(eq("users_name_1.0:"), envelopes.capture(), aliases.capture(),
+                eq(300L));
+        assertEquals(new CacheEnvelope<>(other, NOW + 240_000, 0), envelopes.getValue().get("otheruser"));
+        assertEquals(List.of("user_email_1.0:other@example.com"), aliases.getValue().get("otheruser"));
+        assertSame(other, userCacheService.getByEmail("other@example.com"));
+        verify(redisService, never()).setWithAliases(anyString(), anyString(), any(), anyList(), anyLong());
+    }
+
+    @Test
+    void evict_shouldDeleteCanonicalEntryAndAliasesEverywhere() throws JsonProcessingException {
+        userCacheService.put(userDto);
+
+        userCacheService.evict("testuser", Set.of("old@example.com"), Set.of());
+
+        verify(redisService).deleteAll(List.of("users_name_1.0:testuser", "user_email_1.0:old@example.com",
+                "user_email_1.0:test@example.com", "user_mobile_1.0:9999999999"));
+        verify(redisService).publish(eq("user_cache_invalidation"), anyString());
+        assertNull(userCacheService.getByUserName("testuser"));
+    }
+
+    @Test
+    void invalidateAll_shouldMoveUserKeyspacesToNewGenerations() throws JsonProcessingException {
+        userCacheService.put(userDto);
+        when(redisService.increment(startsWith("cache_generation_"))).thenReturn(1L);
+
+        userCacheService.invalidateAll();
+
+        verify(redisService).increment("cache_generation_users_name_");
+        verify(redisService).increment("cache_generation_user_email_");
+        verify(redisService).increment("cache_generation_user_mobile_");
+        assertNull(userCacheService.getByUserName("testuser"));
+        verify(redisService).get(eq("users_name_1.1:testuser"), any(TypeReference.class));
+    }
+
+    @Test
+    void onInvalidation_shouldDropLocalCopies_fromOtherNodes() throws JsonProcessingException {
+        when(redisService.get(eq("users_name_1.0:testuser"), any(TypeReference.class))).thenReturn(fresh(userDto));
+        userCacheService.getByUserName("testuser");
+
+        userCacheService.onInvalidation("other-node|users_name_1.0:testuser,user_email_1.0:test@example.com");
+        userCacheService.getByUserName("testuser");
+
+        verify(redisService, times(2)).get(eq("users_name_1.0:testuser"), any(TypeReference.class));
+    }
+
+    @Test
+    void onInvalidation_shouldIgnoreOwnMessages() throws JsonProcessingException {
+        userCacheService.put(userDto);
+        userCacheService.evict("otheruser", Set.of(), Set.of());
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisService).publish(eq("user_cache_invalidation"), message.capture());
+        String nodeId = message.getValue().substring(0, message.getValue().indexOf('|'));
+
+        userCacheService.onInvalidation(nodeId + "|users_name_1.0:testuser");
+
+        assertSame(userDto, userCacheService.getByUserName("testuser"));
+        verify(redisService, never()).get(anyString(), any(TypeReference.class));
+    }
+
+    @Test
+    void getByUserName_shouldLoadOnce_forConcurrentMisses() throws Exception {
+        int callers = 16;
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findByUserName("testuser")).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(new User());
+        });
+        try (ConcurrentCallers<UserDto> concurrentCallers = new ConcurrentCallers<>(callers)) {
+            List<Future<UserDto>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(concurrentCallers.start(() -> userCacheService.getByUserName("testuser", () -> {
+                    userRepository.findByUserName("testuser");
+                    return userDto;
+                })));
+            }
+            concurrentCallers.awaitAllParked();
+            release.countDown();
+
+            for (Future<UserDto> result : results) {
+                assertSame(userDto, result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        verify(userRepository, times(1)).findByUserName("testuser");
+        verify(redisService, times(1)).setWithAliases(eq("users_name_1.0:"), eq("testuser"), any(), anyList(), eq(300L));
+    }
+
+    @Test
+    void getByEmail_shouldNotLoad_whenFresh() throws JsonProcessingException {
+        when(redisService.getViaAlias(eq("user_email_1.0:test@example.com"), eq("users_name_1.0:"), any(TypeReference.class)))
+                .thenReturn(fresh(userDto));
+
+        assertSame(userDto, userCacheService.getByEmail("test@example.com", () -> {
+            throw new AssertionError("loader must not run on a hit");
+        }));
+        assertTrue(scheduledRefreshes.isEmpty());
+    }
+
+    @Test
+    void getByUserName_shouldServeStaleValue_andRefreshInBackground() throws JsonProcessingException {
+        UserDto refreshed = new UserDto();
+        refreshed.setUserName("testuser");
+        when(redisService.get(eq("users_name_1.0:testuser"), any(TypeReference.class)))
+                .thenReturn(new CacheEnvelope<>(userDto, NOW - 1, 20));
+
+        assertSame(userDto, userCacheService.getByUserName("testuser", () -> refreshed));
+        assertSame(userDto, userCacheService.getByUserName("testuser", () -> refreshed));
+
+        assertEquals(1, scheduledRefreshes.size());
+        verify(redisService, never()).setWithAliases(anyString(), anyString(), any(), anyList(), anyLong());
+        scheduledRefreshes.get(0).run();
+
+        verify(redisService).setWithAliases(eq("users_name_1.0:"), eq("testuser"), any(), anyList(), eq(300L));
+        assertSame(refreshed, userCacheService.getByUserName("testuser"));
+    }
+
+    @Test
+    void getByUserName_shouldFallBackToLoaderAndLocalCache_whenRedisIsUnavailable() throws JsonProcessingException {
+        when(redisService.get(eq("users_name_1.0:testuser"), any(TypeReference.class)))
+                .thenThrow(new CacheUnavailableException("open"));
+        doThrow(new CacheUnavailableException("open")).when(redisService)
+                .setWithAliases(anyString(), anyString(), any(), anyList(), anyLong());
+        List<UserDto> loaded = new ArrayList<>();
+
+        assertSame(userDto, userCacheService.getByUserName("testuser", () -> {
+            loaded.add(userDto);
+            return userDto;
+        }));
+        assertSame(userDto, userCacheService.getByUserName("testuser"));
+
+        assertEquals(1, loaded.size());
+        verify(redisService, times(1)).get(eq("users_name_1.0:testuser"), any(TypeReference.class));
+    }
+
+    @Test
+    void getByEmail_shouldBypassCache_whenGenerationIsUnknown() throws JsonProcessingException {
+        when(redisService.getCounter(anyString())).thenThrow(new CacheUnavailableException("open"));
+
+        assertSame(userDto, userCacheService.getByEmail("test@example.com", () -> userDto));
+
+        verify(redisService, never()).getViaAlias(anyString(), anyString(), any(TypeReference.class));
+        verify(redisService, never()).setWithAliases(anyString(), anyString(), any(), anyList(), anyLong());
+    }
+
+    @Test
+    void shouldRefresh_shouldRefreshEarlier_forSlowerLoads() {
+        CacheEnvelope<UserDto> fastLoad = new CacheEnvelope<>(userDto, NOW + 1_000, 10);
+        CacheEnvelope<UserDto> slowLoad = new CacheEnvelope<>(userDto, NOW + 1_000, 2_000);
+
+        assertFalse(fastLoad.shouldRefresh(NOW, 1.0, 0.5));
+        assertTrue(slowLoad.shouldRefresh(NOW, 1.0, 0.5));
+        assertFalse(slowLoad.shouldRefresh(NOW, 0.0, 0.5));
+        assertTrue(fastLoad.shouldRefresh(NOW + 1_000, 0.0, 0.5));
+    }
+
+    private static CacheEnvelope<UserDto> fresh(UserDto userDto) {
+        return new CacheEnvelope<>(userDto, NOW + 240_000, 0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.smartim.userservice.service.shared;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.smartim.userservice.dto.UserDto;
+import com.smartim.userservice.entity.User;
+import com.smartim.userservice.mapper.UserMapper;
+import com.smartim.userservice.repository.UserRepository;
+import com.smartim.userservice.repository.projection.UserView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheWarmerTest {
+
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private UserCacheService userCacheService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void warmUp_shouldCacheMostRecentlyUpdatedUsersInBatches() throws JsonProcessingException {
+        when(userRepository.findViewsByUserStatus(eq(true), any(Pageable.class)))
+                .thenAnswer(invocation -> users(((Pageable) invocation.getArgument(1)).getPageNumber(), 2));
+        when(userMapper.toUserDtoFromView(any(UserView.class))).thenAnswer(invocation -> {
+            UserDto userDto = new UserDto();
+            userDto.setUserName(((UserView) invocation.getArgument(0)).getUserName());
+            return userDto;
+        });
+
+        int cached = warmer(5, 2, 15).warmUp();
+
+        assertEquals(5, cached);
+        ArgumentCaptor<Pageable> pages = ArgumentCaptor.forClass(Pageable.class);
+        verify(userRepository, times(3)).findViewsByUserStatus(eq(true), pages.capture());
+        assertTrue(pages.getAllValues().contains(
+                PageRequest.of(2, 2, Sort.by(Sort.Direction.DESC, "updatedOn", "createdOn"))));
+        ArgumentCaptor<List<UserDto>> batches = ArgumentCaptor.forClass(List.class);
+        verify(userCacheService, times(3)).putAll(batches.capture());
+        assertEquals(5, batches.getAllValues().stream().mapToInt(List::size).sum());
+        verify(userCacheService, never()).put(any(UserDto.class));
+    }
+
+    @Test
+    void warmUp_shouldStopWithoutFailing_whenCacheIsUnavailable() throws JsonProcessingException {
+        when(userRepository.findViewsByUserStatus(eq(true), any(Pageable.class))).thenReturn(users(0, 2));
+        when(userMapper.toUserDtoFromView(any(UserView.class))).thenReturn(new UserDto());
+        doThrow(new RedisConnectionFailureException("down")).when(userCacheService).putAll(anyList());
+
+        int cached = warmer(4, 2, 15).warmUp();
+
+        assertEquals(0, cached);
+        verify(userCacheService, atMost(2)).putAll(anyList());
+    }
+
+    @Test
+    void warmUp_shouldLoadNothing_whenTimeBudgetIsSpent() {
+        assertEquals(0, warmer(10, 5, 0).warmUp());
+
+        verifyNoInteractions(userRepository, userCacheService);
+    }
+
+    @Test
+    void warmUp_shouldSkipWithoutFailing_whenBatchSizeOrParallelismIsNotPositive() {
+        assertEquals(0, warmer(10, 0, 15).warmUp());
+        assertEquals(0, new UserCacheWarmer(userRepository, userMapper, userCacheService, true, 10, 5, 0, 15)
+                .warmUp());
+
+        verifyNoInteractions(userRepository, userCacheService);
+    }
+
+    @Test
+    void run_shouldDoNothing_whenDisabled() {
+        new UserCacheWarmer(userRepository, userMapper, userCacheService, false, 10, 5, 2, 15)
+                .run(new DefaultApplicationArguments());
+
+        verifyNoInteractions(userRepository, userCacheService);
+    }
+
+    private UserCacheWarmer warmer(int maxUsers, int batchSize, long timeBudgetSeconds) {
+        return new UserCacheWarmer(userRepository, userMapper, userCacheService, true, maxUsers, batchSize, 2,
+                timeBudgetSeconds);
+    }
+
+    private static List<UserView> users(int page, int size) {
+        return IntStream.range(0, size).mapToObj(i -> {
+            User user = new User();
+            user.setUserName("user" + (page * size + i));
+            return PROJECTIONS.createProjection(UserView.class, user);
+        }).toList();
+    }
+}
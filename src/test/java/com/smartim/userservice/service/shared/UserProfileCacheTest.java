@@ -0,0 +1,77 @@
+package com.smartim.userservice.service.shared;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.smartim.userservice.dto.UserDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserProfileCacheTest {
+
+    @Mock
+    private UserCacheService userCacheService;
+
+    private UserDto userDto;
+
+    @BeforeEach
+    void setUp() {
+        userDto = new UserDto();
+        userDto.setUserName("testuser");
+        userDto.setEmail("test@example.com");
+    }
+
+    @Test
+    void get_shouldDelegateToUserNameLookup_withLoader() throws JsonProcessingException {
+        UserProfileCache cache = new UserProfileCache("users", UserProfileCache.Lookup.USER_NAME, userCacheService);
+        when(userCacheService.getByUserName(eq("testuser"), any())).thenAnswer(invocation ->
+                invocation.<Supplier<UserDto>>getArgument(1).get());
+
+        assertSame(userDto, cache.get("testuser", () -> userDto));
+    }
+
+    @Test
+    void get_shouldWrapLoaderFailure() throws JsonProcessingException {
+        UserProfileCache cache = new UserProfileCache("usersByEmail", UserProfileCache.Lookup.EMAIL, userCacheService);
+        when(userCacheService.getByEmail(eq("test@example.com"), any())).thenAnswer(invocation ->
+                invocation.<Supplier<UserDto>>getArgument(1).get());
+        IllegalStateException failure = new IllegalStateException("boom");
+
+        Cache.ValueRetrievalException exception = assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get("test@example.com", () -> {
+                    throw failure;
+                }));
+
+        assertSame(failure, exception.getCause());
+    }
+
+    @Test
+    void evict_byEmail_shouldEvictTheCachedUser() throws JsonProcessingException {
+        UserProfileCache cache = new UserProfileCache("usersByEmail", UserProfileCache.Lookup.EMAIL, userCacheService);
+        when(userCacheService.getByEmail("test@example.com")).thenReturn(userDto);
+
+        cache.evict("test@example.com");
+
+        verify(userCacheService).evict("testuser", Set.of("test@example.com"), Set.of());
+    }
+
+    @Test
+    void clear_shouldInvalidateAllUsers() {
+        UserProfileCache cache = new UserProfileCache("users", UserProfileCache.Lookup.USER_NAME, userCacheService);
+
+        cache.clear();
+
+        verify(userCacheService).invalidateAll();
+    }
+}
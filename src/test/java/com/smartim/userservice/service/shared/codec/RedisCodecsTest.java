@@ -0,0 +1,115 @@
+package com.smartim.userservice.service.shared.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartim.userservice.config.UserConfig;
+import com.smartim.userservice.dto.UserDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisCodecsTest {
+
+    private ObjectMapper objectMapper;
+    private List<RedisCodec> codecs;
+    private UserDto userDto;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new UserConfig().objectMapper();
+        codecs = List.of(new JsonRedisCodec(objectMapper), new SmileRedisCodec(objectMapper));
+        userDto = new UserDto();
+        userDto.setUserName("test@example.com");
+        userDto.setEmail("test@example.com");
+        userDto.setFullName("Test User");
+        userDto.setRole("USER");
+        userDto.setCreatedOn(LocalDateTime.of(2025, 1, 1, 10, 0));
+    }
+
+    @Test
+    void encode_shouldWriteSmile_andRoundTrip() throws JsonProcessingException {
+        RedisCodecs redisCodecs = new RedisCodecs(codecs, "smile", 1024);
+
+        byte[] data = redisCodecs.encode(userDto);
+
+        assertTrue(new SmileRedisCodec(objectMapper).canDecode(data));
+        assertEquals(userDto, redisCodecs.decode(data, UserDto.class));
+    }
+
+    @Test
+    void encode_shouldWriteCompactJson() throws JsonProcessingException {
+        RedisCodecs redisCodecs = new RedisCodecs(codecs, "json", 1024);
+
+        String json = new String(redisCodecs.encode(userDto), StandardCharsets.UTF_8);
+
+        assertFalse(json.contains("\n"));
+        assertEquals(userDto, redisCodecs.decode(json.getBytes(StandardCharsets.UTF_8), UserDto.class));
+    }
+
+    @Test
+    void smile_shouldBeSmallerThanIndentedJson() throws JsonProcessingException {
+        byte[] indentedJson = objectMapper.writeValueAsBytes(userDto);
+        byte[] smile = new RedisCodecs(codecs, "smile", -1).encode(userDto);
+
+        assertTrue(smile.length < indentedJson.length);
+    }
+
+    @Test
+    void decode_shouldReadLegacyIndentedJson_whenWritingSmile() throws JsonProcessingException {
+        RedisCodecs redisCodecs = new RedisCodecs(codecs, "smile", 1024);
+        byte[] legacy = objectMapper.writeValueAsBytes(userDto);
+
+        assertEquals(userDto, redisCodecs.decode(legacy, UserDto.class));
+    }
+
+    @Test
+    void decode_shouldReadSmile_whenWritingJson() throws JsonProcessingException {
+        byte[] smile = new RedisCodecs(codecs, "smile", 1024).encode(userDto);
+
+        assertEquals(userDto, new RedisCodecs(codecs, "json", 1024).decode(smile, UserDto.class));
+    }
+
+    @Test
+    void encode_shouldCompressLargeValues() throws JsonProcessingException {
+        RedisCodecs redisCodecs = new RedisCodecs(codecs, "smile", 256);
+        List<UserDto> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            users.add(userDto);
+        }
+
+        byte[] data = redisCodecs.encode(users);
+
+        assertEquals(RedisCodecs.COMPRESSED, data[0]);
+        assertTrue(data.length < new RedisCodecs(codecs, "smile", -1).encode(users).length);
+        assertEquals(users, redisCodecs.decode(data, new TypeReference<List<UserDto>>() {}));
+    }
+
+    @Test
+    void encode_shouldNotCompressSmallValues() throws JsonProcessingException {
+        byte[] data = new RedisCodecs(codecs, "smile", 1024).encode(userDto);
+
+        assertNotEquals(RedisCodecs.COMPRESSED, data[0]);
+    }
+
+    @Test
+    void decode_shouldRejectUnknownFormat() {
+        RedisCodecs redisCodecs = new RedisCodecs(codecs, "smile", 1024);
+
+        assertThrows(JsonProcessingException.class,
+                () -> redisCodecs.decode(new byte[]{1, 2, 3}, UserDto.class));
+        assertThrows(JsonProcessingException.class,
+                () -> redisCodecs.decode(new byte[]{RedisCodecs.COMPRESSED, 1, 2, 3}, UserDto.class));
+    }
+
+    @Test
+    void constructor_shouldRejectUnknownWriterFormat() {
+        assertThrows(IllegalStateException.class, () -> new RedisCodecs(codecs, "cbor", 1024));
+    }
+}
@@ -0,0 +1,76 @@
+package com.smartim.userservice.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the same call from several threads at once, for tests of code coalescing concurrent calls.
+ * Each call runs on its own thread, so once every thread is parked, each caller is either blocked in the test
+ * loader or waiting for a load started by another caller, and none can still miss a shared load.
+ *
+ * @param <T> the type of the call result
+ */
+public final class ConcurrentCallers<T> implements AutoCloseable {
+
+    private final List<Thread> threads = new ArrayList<>();
+    private final ExecutorService executor;
+
+    /**
+     * Creates the threads of the given number of callers.
+     *
+     * @param callers the number of concurrent callers
+     */
+    public ConcurrentCallers(int callers) {
+        this.executor = Executors.newFixedThreadPool(callers, task -> {
+            Thread thread = new Thread(task);
+            synchronized (threads) {
+                threads.add(thread);
+            }
+            return thread;
+        });
+    }
+
+    /**
+     * Starts one call on the next caller thread.
+     *
+     * @param call the call
+     * @return the result of the call
+     */
+    public Future<T> start(Callable<T> call) {
+        return executor.submit(call);
+    }
+
+    /**
+     * Waits until every started caller is parked on a {@code java.util.concurrent} synchronizer, such as the latch
+     * of a test loader or the future of a running load.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitAllParked() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!allParked()) {
+            assertTrue(System.nanoTime() < deadline, "callers did not block in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private boolean allParked() {
+        synchronized (threads) {
+            return threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING
+                    && LockSupport.getBlocker(thread) != null);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
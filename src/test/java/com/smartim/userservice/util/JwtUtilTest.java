@@ -1,6 +1,9 @@
 package com.smartim.userservice.util;
 
+import com.smartim.userservice.security.JwtKeyRing;
+import com.smartim.userservice.security.VerifiedToken;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,8 +22,7 @@ class JwtUtilTest {
 
     @BeforeEach
     void setUp() {
-        jwtUtil = new JwtUtil();
-        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", secret);
+        jwtUtil = new JwtUtil(new JwtKeyRing(secret, expiration, 0, "HS256", null, null, null));
         ReflectionTestUtils.setField(jwtUtil, "jwtExpirationTimeMs", expiration);
     }
 
@@ -75,13 +77,40 @@ class JwtUtilTest {
         assertFalse(jwtUtil.isTokenValid(expiredToken, "testuser"));
     }
 
+    @Test
+    void verifyToken_shouldReturnClaims_forValidToken() {
+        String token = jwtUtil.generateToken("testuser", "ADMIN", "test@example.com");
+
+        VerifiedToken verifiedToken = jwtUtil.verifyToken(token);
+
+        assertEquals("testuser", verifiedToken.userName());
+        assertEquals("ADMIN", verifiedToken.role());
+        assertEquals("test@example.com", verifiedToken.email());
+        assertFalse(verifiedToken.isExpired());
+    }
+
+    @Test
+    void verifyToken_shouldReuseVerifiedClaims_forSameToken() {
+        String token = jwtUtil.generateToken("testuser", "USER", "test@example.com");
+
+        assertSame(jwtUtil.verifyToken(token), jwtUtil.verifyToken(token));
+    }
+
+    @Test
+    void verifyToken_shouldThrowException_forTamperedToken() {
+        String token = jwtUtil.generateToken("testuser", "USER", "test@example.com");
+        jwtUtil.verifyToken(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtil.verifyToken(tampered));
+    }
+
     @Test
     void extractAllClaims_shouldThrowException_forInvalidSignature() {
         String token = jwtUtil.generateToken("testuser", "USER", "test@example.com");
 
         // Create another util with a different secret
-        JwtUtil anotherJwtUtil = new JwtUtil();
-        ReflectionTestUtils.setField(anotherJwtUtil, "jwtSecret", "another-different-secret-key-for-sure");
+        JwtUtil anotherJwtUtil = new JwtUtil(new JwtKeyRing("another-different-secret-key-for-sure", expiration, 0, "HS256", null, null, null));
 
         assertThrows(SignatureException.class, () -> anotherJwtUtil.extractAllClaims(token));
     }
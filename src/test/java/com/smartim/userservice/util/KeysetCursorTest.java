@@ -0,0 +1,30 @@
+package com.smartim.userservice.util;
+
+import com.smartim.userservice.exception.RequestProcessingException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void decode_shouldReturnTheEncodedId() {
+        String cursor = KeysetCursor.encode(42L);
+
+        assertFalse(cursor.contains("42"));
+        assertEquals(42L, KeysetCursor.decode(cursor));
+    }
+
+    @Test
+    void decode_shouldRejectMalformedCursors() {
+        String unversioned = Base64.getUrlEncoder().encodeToString("42".getBytes(StandardCharsets.UTF_8));
+        String notANumber = Base64.getUrlEncoder().encodeToString("v1:abc".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(RequestProcessingException.class, () -> KeysetCursor.decode("%%%"));
+        assertThrows(RequestProcessingException.class, () -> KeysetCursor.decode(unversioned));
+        assertThrows(RequestProcessingException.class, () -> KeysetCursor.decode(notANumber));
+    }
+}
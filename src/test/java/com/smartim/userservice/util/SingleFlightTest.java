@@ -0,0 +1,77 @@
+package com.smartim.userservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_shouldRunLoaderOnce_forConcurrentCallers() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        try (ConcurrentCallers<String> callers = new ConcurrentCallers<>(CALLERS)) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(callers.start(() -> singleFlight.execute("key", () -> {
+                    loads.incrementAndGet();
+                    release.await();
+                    return "value";
+                })));
+            }
+            callers.awaitAllParked();
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        }
+    }
+
+    @Test
+    void execute_shouldShareException_withWaitingCallers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ConcurrentCallers<String> callers = new ConcurrentCallers<>(2)) {
+            Future<String> leader = callers.start(() -> singleFlight.execute("key", () -> {
+                started.countDown();
+                release.await();
+                throw new IOException("load failed");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> follower = callers.start(() -> singleFlight.execute("key", () -> "unused"));
+            callers.awaitAllParked();
+            release.countDown();
+
+            Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IOException.class, leaderFailure.getCause());
+            assertInstanceOf(IOException.class, followerFailure.getCause());
+        }
+    }
+
+    @Test
+    void execute_shouldLoadAgain_afterPreviousLoadCompleted() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("key", () -> "value" + loads.incrementAndGet());
+        String second = singleFlight.execute("key", () -> "value" + loads.incrementAndGet());
+
+        assertEquals("value2", second);
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+}